@@ -23,6 +23,12 @@ public class MessageConstant {
     public static final String DISH_BE_RELATED_BY_SETMEAL = "当前菜品关联了套餐,不能删除";
     public static final String ORDER_STATUS_ERROR = "订单状态错误";
     public static final String ORDER_NOT_FOUND = "订单不存在";
+    public static final String GOODS_NOT_ON_SALE = "购物车中有商品已停售，请重新选择";
+    public static final String PAGE_CURSOR_ERROR = "分页游标错误";
+    public static final String ORDER_BUSY = "当前下单人数过多，请稍后再试";
+    public static final String ORDER_SUBMIT_FAILED = "下单失败，请重试";
+    public static final String REPORT_DATE_RANGE_ERROR = "统计日期范围错误";
+    public static final String REPORT_DATE_RANGE_TOO_LONG = "统计日期范围不能超过 2 年";
 
     public static final String ALREADY_EXISTS = "已存在";
 }
@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.cache-warmup")
+@Data
+public class CacheWarmupProperties {
+
+    private int concurrency; //同时预热的分类数，限制预热时对数据库的并发压力
+    private long timeoutSeconds; //启动时预热的最长等待时间(秒)，超时后不再等待，直接开始接收请求
+
+}
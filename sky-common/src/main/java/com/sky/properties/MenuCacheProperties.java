@@ -0,0 +1,17 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.menu-cache")
+@Data
+public class MenuCacheProperties {
+
+    private int localMaxSize; //本地缓存最多保存的 key 数量，超出后淘汰最久未访问的数据
+    private long localTtlSeconds; //本地缓存的过期时间(秒)，漏收失效通知时的兜底
+    private long redisTtlSeconds; //redis 缓存的过期时间(秒)，旧版本的数据过期后自动删除
+    private long refreshSeconds; //redis 缓存加载超过该时间(秒)后在后台刷新，刷新完成前继续返回旧数据
+
+}
@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.order-archive")
+@Data
+public class OrderArchiveProperties {
+
+    private int ageDays; //已完成、已取消的订单下单超过该天数后移入归档表
+    private int batchSize; //每个事务归档的最大订单数
+
+}
@@ -0,0 +1,17 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.order-submit")
+@Data
+public class OrderSubmitProperties {
+
+    private int queueCapacity; //下单队列容量，队列满时拒绝下单
+    private int batchSize; //每批写入数据库的最大订单数
+    private long idempotencyTtl; //幂等键的有效时间(秒)
+    private long writeTimeoutSeconds; //下单请求等待订单写入数据库的最长时间(秒)
+
+}
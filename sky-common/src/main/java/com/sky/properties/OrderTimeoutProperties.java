@@ -0,0 +1,16 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.order-timeout")
+@Data
+public class OrderTimeoutProperties {
+
+    private boolean paymentTimeoutEnabled; //是否自动取消超时未支付的订单，项目中还没有支付回调，默认关闭
+    private long paymentMinutes; //下单后超过该时间未支付，自动取消订单
+    private long deliveryMinutes; //下单后超过该时间仍在派送中，自动完成订单
+
+}
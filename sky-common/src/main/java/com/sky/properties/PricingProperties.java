@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.pricing")
+@Data
+public class PricingProperties {
+
+    private int packFee; //每份商品的打包费(元)
+    private int deliveryFee; //每单配送费(元)
+
+}
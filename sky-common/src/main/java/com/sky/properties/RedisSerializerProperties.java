@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.redis-serializer")
+@Data
+public class RedisSerializerProperties {
+
+    private String type; //redis value 的序列化方式：compact 紧凑二进制，jdk JDK 序列化
+    private int compressThreshold; //紧凑二进制序列化结果超过该字节数时压缩，小于等于 0 表示不压缩
+
+}
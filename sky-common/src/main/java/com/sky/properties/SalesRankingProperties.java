@@ -0,0 +1,15 @@
+package com.sky.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "sky.sales-ranking")
+@Data
+public class SalesRankingProperties {
+
+    private int capacity; //每天最多记录的商品数，超出后替换销量最小的商品，容量越大排行越准确
+    private long retentionDays; //每日销量排行在 redis 中保留的天数，开始日期早于保留天数的销量排行查询会被拒绝
+
+}
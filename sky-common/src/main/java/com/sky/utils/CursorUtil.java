@@ -0,0 +1,64 @@
+package com.sky.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标编解码
+ * 游标为 (排序时间, id) 的 Base64 编码，对客户端不透明
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = ",";
+
+    /**
+     * 生成游标
+     *
+     * @param time 最后一条记录的排序时间
+     * @param id   最后一条记录的id
+     * @return
+     */
+    public static String encode(LocalDateTime time, Long id) {
+        String raw = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标中的排序时间
+     *
+     * @param cursor 游标
+     * @return 格式错误时返回 null
+     */
+    public static LocalDateTime decodeTime(String cursor) {
+        String[] parts = decode(cursor);
+        return parts == null ? null : LocalDateTime.parse(parts[0]);
+    }
+
+    /**
+     * 解析游标中的id
+     *
+     * @param cursor 游标
+     * @return 格式错误时返回 null
+     */
+    public static Long decodeId(String cursor) {
+        String[] parts = decode(cursor);
+        return parts == null ? null : Long.valueOf(parts[1]);
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 2) {
+                return null;
+            }
+            // 提前校验格式
+            LocalDateTime.parse(parts[0]);
+            Long.valueOf(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sky.utils;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法 id 生成器，生成单调递增的 64 位 id
+ * 结构：1位符号位 + 41位时间戳(毫秒) + 10位机器id + 12位序列号
+ * 通过 CAS 更新上一次生成的 id 实现无锁并发；时钟回拨时沿用上一次的时间戳继续递增序列号，保证 id 不重复且不回退
+ */
+public class SnowflakeIdUtil {
+
+    // 起始时间戳 2022-01-01 00:00:00
+    private static final long EPOCH = 1640995200000L;
+
+    private static final long WORKER_ID_BITS = 10L;
+    private static final long SEQUENCE_BITS = 12L;
+
+    public static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+    private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
+    private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
+
+    @Getter
+    private final long workerId;
+
+    // 机器id 左移后的值，直接拼接到 id 中
+    private final long workerBits;
+
+    // 上一次生成的 id
+    private final AtomicLong lastId = new AtomicLong();
+
+    public SnowflakeIdUtil(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 取值范围为 0 ~ " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+        this.workerBits = workerId << WORKER_ID_SHIFT;
+    }
+
+    /**
+     * 生成下一个 id
+     *
+     * @return
+     */
+    public long nextId() {
+        for (; ; ) {
+            long last = lastId.get();
+            long lastTimestamp = last >>> TIMESTAMP_SHIFT;
+            long timestamp = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (timestamp > lastTimestamp) {
+                // 进入新的毫秒，序列号从 0 开始
+                next = (timestamp << TIMESTAMP_SHIFT) | workerBits;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // 同一毫秒内或者时钟回拨，在上一次的时间戳上递增序列号
+                next = last + 1;
+            } else {
+                // 序列号用尽，借用下一毫秒
+                next = ((lastTimestamp + 1) << TIMESTAMP_SHIFT) | workerBits;
+            }
+
+            if (lastId.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 生成下一个 id 的字符串形式
+     *
+     * @return
+     */
+    public String nextIdStr() {
+        return String.valueOf(nextId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.sky.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class OrdersBatchDTO implements Serializable {
+
+    //订单id集合
+    private List<Long> ids;
+    //订单取消原因
+    private String cancelReason;
+    //订单拒绝原因
+    private String rejectionReason;
+
+}
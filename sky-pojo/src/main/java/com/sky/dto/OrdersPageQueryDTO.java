@@ -27,4 +27,18 @@ public class OrdersPageQueryDTO implements Serializable {
 
     private Long userId;
 
+    //游标分页的游标，不为 null 时使用游标分页，空字符串表示第一页
+    private String cursor;
+
+    //游标分页时是否统计总记录数
+    private Boolean withTotal;
+
+    //游标分页时由游标解析得到的下单时间和订单id
+    private LocalDateTime cursorTime;
+
+    private Long cursorId;
+
+    //是否同时查询归档表，客户端查询更早的历史订单时传 true；时间范围早于归档边界时也会查询归档表
+    private Boolean includeArchive;
+
 }
@@ -28,4 +28,6 @@ public class OrdersSubmitDTO implements Serializable {
     private Integer packAmount;
     //总金额
     private BigDecimal amount;
+    //幂等键，可选，客户端重试同一次下单时保持不变；不传时不去重
+    private String idempotencyKey;
 }
@@ -0,0 +1,37 @@
+package com.sky.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 每日汇总数据，报表直接读取该表，不再实时聚合订单表、用户表
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStat implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //统计日期
+    private LocalDate statDate;
+
+    //当天下单的订单数
+    private Integer orderCount;
+
+    //当天下单且已完成的订单数
+    private Integer validOrderCount;
+
+    //营业额，当天下单且已完成的订单金额合计
+    private BigDecimal turnover;
+
+    //当天新增用户数
+    private Integer newUserCount;
+}
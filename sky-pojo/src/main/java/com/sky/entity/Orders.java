@@ -99,6 +99,9 @@ public class Orders implements Serializable {
     //送达时间
     private LocalDateTime deliveryTime;
 
+    //开始派送时间
+    private LocalDateTime deliveryStartTime;
+
     //打包费
     private int packAmount;
 
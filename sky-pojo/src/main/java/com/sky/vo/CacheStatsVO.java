@@ -0,0 +1,37 @@
+package com.sky.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 缓存命中统计，每一级缓存一条
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsVO implements Serializable {
+
+    private String name;//缓存名称
+
+    private String level;//缓存级别：L1 本地缓存，L2 redis，DB 数据库加载
+
+    private Long hits;//命中次数
+
+    private Long misses;//未命中次数
+
+    private Long evictions;//淘汰次数
+
+    private Integer size;//当前缓存的 key 数量，redis 不统计
+
+    private Long loads;//查询数据库的次数
+
+    private Long staleHits;//超过刷新时间、返回旧数据并在后台刷新的次数
+
+    private Long earlyRefreshes;//按概率提前刷新的次数
+
+}
@@ -0,0 +1,27 @@
+package com.sky.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量修改订单状态的结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResultVO implements Serializable {
+
+    //修改成功的订单id
+    private List<Long> successIds;
+
+    //修改失败的订单，key: 订单id, value: 失败原因
+    private Map<Long, String> failures;
+
+}
@@ -0,0 +1,33 @@
+package com.sky.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 下单队列运行指标
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSubmitQueueVO implements Serializable {
+
+    private Integer capacity;//队列容量
+
+    private Integer size;//当前排队中的订单数
+
+    private Long accepted;//已受理的订单数
+
+    private Long rejected;//因队列已满被拒绝的订单数
+
+    private Long persisted;//已写入数据库的订单数
+
+    private Long failed;//写入数据库失败的订单数
+
+    private Long batches;//已执行的批量写入次数
+
+}
@@ -0,0 +1,59 @@
+package com.sky.archive;
+
+import com.sky.counter.OrderStatusCounter;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderArchiveMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 将一批历史订单在同一个事务中从热表移入归档表
+ */
+@Component
+public class OrderArchiver {
+
+    // 只有处于终态的订单才会被归档
+    private static final List<Integer> ARCHIVABLE_STATUSES = Arrays.asList(Orders.COMPLETED, Orders.CANCELLED);
+
+    @Autowired
+    private OrderArchiveMapper orderArchiveMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+
+    /**
+     * 归档一批下单时间早于 before 的订单
+     *
+     * @param before    归档边界
+     * @param batchSize 本批最多归档的订单数
+     * @return 本批归档的订单数，为 0 说明已没有可归档的订单
+     */
+    @Transactional
+    public int archiveBatch(LocalDateTime before, int batchSize) {
+        List<Orders> ordersList = orderArchiveMapper.getArchivable(ARCHIVABLE_STATUSES, before, batchSize);
+        if (ordersList.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = ordersList.stream().map(Orders::getId).collect(Collectors.toList());
+
+        // 先复制到归档表，再从热表删除
+        orderArchiveMapper.insertOrders(ids);
+        orderArchiveMapper.insertOrderDetails(ids);
+        orderArchiveMapper.deleteOrderDetails(ids);
+        orderArchiveMapper.deleteOrders(ids);
+
+        // 状态计数只统计热表中的订单
+        Map<Integer, Long> statusCount = ordersList.stream()
+                .collect(Collectors.groupingBy(Orders::getStatus, Collectors.counting()));
+        statusCount.forEach((status, count) -> orderStatusCounter.remove(status, count.intValue()));
+
+        return ids.size();
+    }
+}
@@ -0,0 +1,23 @@
+package com.sky.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 写入 redis 的缓存数据，记录加载时间和加载耗时，用于判断是否需要提前刷新
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEntry implements Serializable {
+
+    private Object value;//缓存的数据
+
+    private Long loadedAt;//加载完成的时间戳(毫秒)
+
+    private Long loadMillis;//加载耗时(毫秒)
+
+}
@@ -0,0 +1,138 @@
+package com.sky.cache;
+
+import com.sky.properties.MenuCacheProperties;
+import com.sky.vo.CacheStatsVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 防止缓存击穿：
+ * 1. 缓存不存在时，同一个 key 的并发请求只有一个去查询数据库，其他请求等待它的结果
+ * 2. 缓存超过刷新时间后仍然返回旧数据，同时在后台刷新
+ * 3. 临近刷新时间时按概率提前刷新，加载越慢、越接近刷新时间，提前刷新的概率越大，避免大量 key 同时过期
+ */
+@Component
+@Slf4j
+public class CacheLoadGuard {
+
+    // 提前刷新的力度，越大越倾向于提前刷新
+    private static final double BETA = 1.0;
+
+    @Autowired
+    private MenuCacheProperties menuCacheProperties;
+
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+    // 后台刷新线程池，队列满时丢弃刷新任务，调用方继续使用旧数据
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(100), r -> {
+        Thread thread = new Thread(r, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong earlyRefreshes = new AtomicLong();
+
+    /**
+     * 获取缓存数据
+     *
+     * @param key    缓存 key，用于合并并发加载
+     * @param entry  已从缓存中读取到的数据，不存在为 null
+     * @param reader 重新读取缓存，等待加载时其他实例可能已经写入
+     * @param writer 将加载结果写入缓存
+     * @param loader 从数据库中查询
+     * @return
+     */
+    public Object get(String key, CacheEntry entry, Supplier<CacheEntry> reader,
+                      Consumer<CacheEntry> writer, Supplier<?> loader) {
+        if (entry == null) {
+            return singleFlight.execute(key, () -> {
+                CacheEntry current = reader.get();
+                if (current != null) {
+                    return current.getValue();
+                }
+                return load(writer, loader);
+            });
+        }
+
+        if (needRefresh(entry)) {
+            refreshAsync(key, writer, loader);
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * 超过刷新时间，或者按概率提前刷新
+     */
+    private boolean needRefresh(CacheEntry entry) {
+        long now = System.currentTimeMillis();
+        long refreshAt = entry.getLoadedAt() + menuCacheProperties.getRefreshSeconds() * 1000;
+        if (now >= refreshAt) {
+            staleHits.incrementAndGet();
+            return true;
+        }
+
+        // log(random) < 0，距离刷新时间越近、加载耗时越长，越有可能提前刷新
+        double random = ThreadLocalRandom.current().nextDouble();
+        if (now - entry.getLoadMillis() * BETA * Math.log(random) >= refreshAt) {
+            earlyRefreshes.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void refreshAsync(String key, Consumer<CacheEntry> writer, Supplier<?> loader) {
+        if (singleFlight.isRunning(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                singleFlight.execute(key, () -> load(writer, loader));
+            } catch (Exception e) {
+                log.warn("后台刷新缓存失败：{}", key, e);
+            }
+        });
+    }
+
+    private Object load(Consumer<CacheEntry> writer, Supplier<?> loader) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        long end = System.currentTimeMillis();
+        loads.incrementAndGet();
+
+        writer.accept(new CacheEntry(value, end, end - start));
+        return value;
+    }
+
+    /**
+     * 数据库加载统计，菜品和套餐缓存共用
+     *
+     * @return
+     */
+    public CacheStatsVO stats() {
+        return CacheStatsVO.builder()
+                .name("loader")
+                .level("DB")
+                .loads(loads.get())
+                .staleHits(staleHits.get())
+                .earlyRefreshes(earlyRefreshes.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
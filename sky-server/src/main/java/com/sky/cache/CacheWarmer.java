@@ -0,0 +1,172 @@
+package com.sky.cache;
+
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.menu.MenuSnapshot;
+import com.sky.properties.CacheWarmupProperties;
+import com.sky.result.Result;
+import com.sky.service.CategoryService;
+import com.sky.service.DishService;
+import com.sky.service.SetmealService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存预热：应用启动、菜单修改后，提前加载每个分类的菜品、套餐缓存，避免第一批用户请求直接查询数据库
+ * 已存在的缓存直接命中，只有被清理的分类才会查询数据库；同时预热的分类数受 concurrency 限制
+ */
+@Component
+@Slf4j
+public class CacheWarmer {
+
+    // C端套餐缓存的名称，与 user.SetmealController 中 @Cacheable 的 cacheNames 相同
+    public static final String SETMEAL_CACHE = "setmealCache";
+
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private DishService dishService;
+    @Autowired
+    private SetmealService setmealService;
+    @Autowired
+    private MenuCache menuCache;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+    @Autowired
+    private CacheWarmupProperties cacheWarmupProperties;
+
+    // 执行预热的线程池，线程数即同时预热的分类数
+    private ExecutorService warmupExecutor;
+    // 修改后的异步预热在该线程中排队，同一时刻只有一轮预热
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(daemon("cache-warmup-coordinator"));
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 预热期间又发生了修改，本轮结束后需要再预热一轮
+    private final AtomicBoolean rerun = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        warmupExecutor = Executors.newFixedThreadPool(cacheWarmupProperties.getConcurrency(),
+                r -> daemon("cache-warmup-" + index.incrementAndGet()).newThread(r));
+    }
+
+    /**
+     * 应用启动后同步预热，预热完成后 Spring Boot 才将应用标记为可以接收请求
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long start = System.currentTimeMillis();
+        try {
+            warmUp().get(cacheWarmupProperties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            log.info("缓存预热完成，耗时 {} ms", System.currentTimeMillis() - start);
+        } catch (TimeoutException e) {
+            log.warn("缓存预热超过 {} 秒，不再等待", cacheWarmupProperties.getTimeoutSeconds());
+        } catch (Exception e) {
+            log.warn("缓存预热失败", e);
+        }
+    }
+
+    /**
+     * 菜单修改后异步预热，多次修改合并为一轮
+     */
+    public void warmUpAsync() {
+        rerun.set(true);
+        if (running.compareAndSet(false, true)) {
+            coordinator.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (rerun.getAndSet(false)) {
+                try {
+                    warmUp().join();
+                } catch (Exception e) {
+                    log.warn("缓存预热失败", e);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        // 退出前又有新的预热请求
+        if (rerun.get() && running.compareAndSet(false, true)) {
+            coordinator.execute(this::drain);
+        }
+    }
+
+    /**
+     * 并行预热所有启用分类的菜品、套餐缓存以及完整菜单快照
+     *
+     * @return 全部分类预热完成
+     */
+    private CompletableFuture<Void> warmUp() {
+        List<Category> categories = categoryService.list(null);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(categories.size() + 1);
+        for (Category category : categories) {
+            futures.add(CompletableFuture.runAsync(() -> warmCategory(category), warmupExecutor));
+        }
+        futures.add(CompletableFuture.runAsync(menuSnapshot::get, warmupExecutor));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private void warmCategory(Category category) {
+        Long categoryId = category.getId();
+        if (Integer.valueOf(1).equals(category.getType())) {
+            // 与 user.DishController.list 相同的查询条件
+            menuCache.get(categoryId, () -> {
+                Dish dish = new Dish();
+                dish.setCategoryId(categoryId);
+                dish.setStatus(StatusConstant.ENABLE);
+                return dishService.listWithFlavor(dish);
+            });
+        } else {
+            // 与 user.SetmealController.list 缓存的返回值相同
+            Cache cache = cacheManager.getCache(SETMEAL_CACHE);
+            cache.get(categoryId, () -> {
+                Setmeal setmeal = new Setmeal();
+                setmeal.setCategoryId(categoryId);
+                setmeal.setStatus(StatusConstant.ENABLE);
+                return Result.success(setmealService.list(setmeal));
+            });
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        warmupExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,116 @@
+package com.sky.cache;
+
+import com.sky.entity.Category;
+import com.sky.properties.MenuCacheProperties;
+import com.sky.utils.TransactionUtil;
+import com.sky.vo.CacheStatsVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分类列表的本地缓存，按分类类型缓存
+ * 一致性：分类修改的事务提交后，本实例立即清理缓存，之后的读取一定是新数据；
+ * 其他实例在收到 redis 发布订阅通知后清理缓存，漏收通知时最多在本地缓存过期时间后读取到新数据
+ */
+@Component
+public class CategoryCache {
+
+    // 分类缓存失效通知的频道
+    public static final String INVALIDATE_CHANNEL = "category_cache_invalidate";
+    // 查询所有类型的分类时使用的 key
+    private static final String ALL_TYPES = "all";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private MenuCacheProperties menuCacheProperties;
+
+    private LocalCache<String, List<Category>> localCache;
+
+    private final SingleFlight<String, List<Category>> singleFlight = new SingleFlight<>();
+
+    // 每次清理缓存加一，查询数据库期间缓存被清理时，不写入查询到的旧数据
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // 分类类型只有几种，容量不需要配置
+        localCache = new LocalCache<>(16, menuCacheProperties.getLocalTtlSeconds() * 1000);
+
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> clearLocal(),
+                new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 查询分类列表，缓存中不存在时从数据库查询
+     *
+     * @param type   分类类型，为 null 时查询所有类型
+     * @param loader 从数据库查询
+     * @return
+     */
+    public List<Category> get(Integer type, Supplier<List<Category>> loader) {
+        String key = type == null ? ALL_TYPES : String.valueOf(type);
+        List<Category> list = localCache.get(key);
+        if (list != null) {
+            return list;
+        }
+
+        return singleFlight.execute(key, () -> {
+            long current = generation.get();
+            List<Category> result = loader.get();
+            loads.incrementAndGet();
+            // 查询期间没有发生修改时才写入缓存；检查与写入之间可能发生清理，写入后再检查一次，发生清理时删除刚写入的数据
+            if (generation.get() == current) {
+                localCache.put(key, result);
+                if (generation.get() != current) {
+                    localCache.remove(key);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 分类发生修改，事务提交后清理本实例的缓存，并通知其他实例
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(() -> {
+            clearLocal();
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, ALL_TYPES);
+        });
+    }
+
+    private void clearLocal() {
+        generation.incrementAndGet();
+        localCache.clear();
+    }
+
+    /**
+     * 分类缓存的命中统计
+     *
+     * @return
+     */
+    public CacheStatsVO stats() {
+        return CacheStatsVO.builder()
+                .name("category")
+                .level("L1")
+                .hits(localCache.getHits())
+                .misses(localCache.getMisses())
+                .evictions(localCache.getEvictions())
+                .size(localCache.size())
+                .loads(loads.get())
+                .build();
+    }
+}
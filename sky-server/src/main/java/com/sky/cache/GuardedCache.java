@@ -0,0 +1,103 @@
+package com.sky.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 为 Spring Cache 增加击穿保护：数据以 CacheEntry 的形式写入 redis，
+ * 使用 @Cacheable(sync = true) 时由 CacheLoadGuard 合并并发加载、后台刷新旧数据
+ */
+public class GuardedCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheLoadGuard cacheLoadGuard;
+
+    public GuardedCache(Cache delegate, CacheLoadGuard cacheLoadGuard) {
+        this.delegate = delegate;
+        this.cacheLoadGuard = cacheLoadGuard;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        return wrapper == null ? null : new SimpleValueWrapper(unwrap(wrapper.get()));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        return wrapper == null ? null : (T) wrapper.get();
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) cacheLoadGuard.get(getName() + "::" + key, readEntry(key), () -> readEntry(key),
+                entry -> delegate.put(key, entry),
+                () -> {
+                    try {
+                        return valueLoader.call();
+                    } catch (Exception e) {
+                        throw new ValueRetrievalException(key, valueLoader, e);
+                    }
+                });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        delegate.put(key, new CacheEntry(value, now, 0L));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        ValueWrapper wrapper = delegate.putIfAbsent(key, new CacheEntry(value, now, 0L));
+        return wrapper == null ? null : new SimpleValueWrapper(unwrap(wrapper.get()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private CacheEntry readEntry(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        // 兼容升级前直接写入的数据，视为需要立即刷新
+        return value instanceof CacheEntry ? (CacheEntry) value : new CacheEntry(value, 0L, 0L);
+    }
+
+    private Object unwrap(Object value) {
+        return value instanceof CacheEntry ? ((CacheEntry) value).getValue() : value;
+    }
+}
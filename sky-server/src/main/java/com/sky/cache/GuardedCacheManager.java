@@ -0,0 +1,41 @@
+package com.sky.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 将 CacheManager 中的缓存包装为 GuardedCache
+ */
+public class GuardedCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final CacheLoadGuard cacheLoadGuard;
+
+    private final ConcurrentHashMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public GuardedCacheManager(CacheManager delegate, CacheLoadGuard cacheLoadGuard) {
+        this.delegate = delegate;
+        this.cacheLoadGuard = cacheLoadGuard;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new GuardedCache(target, cacheLoadGuard));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,205 @@
+package com.sky.cache;
+
+import com.sky.properties.MenuCacheProperties;
+import com.sky.vo.CacheStatsVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * C端菜单的两级缓存：L1 进程内本地缓存，L2 redis
+ * 读取时依次查询 L1、L2、数据库；数据变更时删除 redis 中的数据，并通过 redis 发布订阅通知所有实例清理本地缓存
+ * redis 中的菜品缓存按版本号划分命名空间，清理全部菜品缓存只需将版本号加一，旧版本的数据不再被读取，过期后由 redis 自动删除
+ */
+@Component
+@Slf4j
+public class MenuCache {
+
+    // 菜品缓存 key 前缀，规则: dish_版本号_分类id
+    public static final String DISH_KEY_PREFIX = "dish_";
+    // 菜品缓存当前版本号的 key
+    public static final String DISH_VERSION_KEY = "dish_version";
+    // 本地缓存失效通知的频道
+    public static final String INVALIDATE_CHANNEL = "menu_cache_invalidate";
+    // 清理全部本地缓存的通知内容
+    private static final String ALL = "*";
+
+    @Autowired
+    private RedisTemplate redisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private MenuCacheProperties menuCacheProperties;
+    @Autowired
+    private CacheLoadGuard cacheLoadGuard;
+
+    private LocalCache<Long, Object> localCache;
+
+    // 每次清理本地缓存加一，读取 redis 或数据库期间本地缓存被清理时，不写入读取到的旧数据
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong redisMisses = new AtomicLong();
+    private final AtomicLong redisEvictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        localCache = new LocalCache<>(menuCacheProperties.getLocalMaxSize(),
+                menuCacheProperties.getLocalTtlSeconds() * 1000);
+
+        // 订阅失效通知，清理本实例的本地缓存；无法识别的分类id按清理全部处理
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            Long categoryId = null;
+            if (!ALL.equals(body)) {
+                try {
+                    categoryId = Long.valueOf(body);
+                } catch (NumberFormatException e) {
+                    log.warn("无法识别的菜品缓存失效通知：{}，清理全部本地缓存", body);
+                }
+            }
+            clearLocal(categoryId);
+        }, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 依次从本地缓存、redis、loader 中获取分类下的菜品，并回填上一级缓存
+     *
+     * @param categoryId 分类id
+     * @param loader     缓存中都不存在时，从数据库中查询
+     * @return
+     */
+    public <T> T get(Long categoryId, Supplier<T> loader) {
+        Object value = localCache.get(categoryId);
+        if (value != null) {
+            return (T) value;
+        }
+        long current = generation.get();
+
+        // 查询数据库期间版本号被修改时，数据会写入旧版本的命名空间，不会覆盖新版本的缓存
+        String key = dishKey(categoryId, currentVersion());
+        CacheEntry entry = readEntry(key);
+        if (entry != null) {
+            redisHits.incrementAndGet();
+        } else {
+            redisMisses.incrementAndGet();
+        }
+
+        // redis 中不存在时合并并发请求，只查询一次数据库；数据较旧时先返回旧数据，再在后台刷新
+        value = cacheLoadGuard.get(key, entry, () -> readEntry(key),
+                e -> redisTemplate.opsForValue().set(key, e, menuCacheProperties.getRedisTtlSeconds(), TimeUnit.SECONDS),
+                loader);
+        if (value == null) {
+            return null;
+        }
+
+        // 读取期间没有发生清理时才写入本地缓存；检查与写入之间可能发生清理，写入后再检查一次，发生清理时删除刚写入的数据
+        if (generation.get() == current) {
+            localCache.put(categoryId, value);
+            if (generation.get() != current) {
+                localCache.remove(categoryId);
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * 清理指定分类的菜品缓存
+     *
+     * @param categoryId 分类id，为 null 时清理全部菜品缓存
+     */
+    public void evict(Long categoryId) {
+        if (categoryId == null) {
+            evictAll();
+            return;
+        }
+        if (Boolean.TRUE.equals(redisTemplate.delete(dishKey(categoryId, currentVersion())))) {
+            redisEvictions.incrementAndGet();
+        }
+        clearLocal(categoryId);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, String.valueOf(categoryId));
+    }
+
+    /**
+     * 清理所有菜品缓存：版本号加一，无需扫描 redis 中的 key
+     */
+    public void evictAll() {
+        stringRedisTemplate.opsForValue().increment(DISH_VERSION_KEY);
+        redisEvictions.incrementAndGet();
+        clearLocal(null);
+        stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, ALL);
+    }
+
+    /**
+     * 清理本实例的本地缓存
+     *
+     * @param categoryId 分类id，为 null 时清理全部
+     */
+    private void clearLocal(Long categoryId) {
+        generation.incrementAndGet();
+        if (categoryId == null) {
+            localCache.clear();
+        } else {
+            localCache.remove(categoryId);
+        }
+    }
+
+    /**
+     * 查询菜品缓存当前的版本号
+     *
+     * @return
+     */
+    private String currentVersion() {
+        String version = stringRedisTemplate.opsForValue().get(DISH_VERSION_KEY);
+        return version == null ? "0" : version;
+    }
+
+    private CacheEntry readEntry(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value instanceof CacheEntry ? (CacheEntry) value : null;
+    }
+
+    private String dishKey(Long categoryId, String version) {
+        return DISH_KEY_PREFIX + version + "_" + categoryId;
+    }
+
+    /**
+     * 各级缓存的命中统计
+     *
+     * @return
+     */
+    public List<CacheStatsVO> stats() {
+        CacheStatsVO local = CacheStatsVO.builder()
+                .name("menu")
+                .level("L1")
+                .hits(localCache.getHits())
+                .misses(localCache.getMisses())
+                .evictions(localCache.getEvictions())
+                .size(localCache.size())
+                .build();
+
+        CacheStatsVO redis = CacheStatsVO.builder()
+                .name("menu")
+                .level("L2")
+                .hits(redisHits.get())
+                .misses(redisMisses.get())
+                .evictions(redisEvictions.get())
+                .build();
+
+        return Arrays.asList(local, redis);
+    }
+}
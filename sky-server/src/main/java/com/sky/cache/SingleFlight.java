@@ -0,0 +1,60 @@
+package com.sky.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 合并同一个 key 的并发加载：同一时刻只有一个线程执行 loader，其他线程等待并共享它的结果
+ *
+ * @param <K> key
+ * @param <V> 加载结果
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行 loader，已有线程在加载同一个 key 时，等待它的结果
+     *
+     * @param key
+     * @param loader
+     * @return
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, future);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+
+    /**
+     * 是否有线程正在加载该 key
+     *
+     * @param key
+     * @return
+     */
+    public boolean isRunning(K key) {
+        return calls.containsKey(key);
+    }
+}
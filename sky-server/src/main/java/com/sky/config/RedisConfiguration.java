@@ -1,24 +1,87 @@
 package com.sky.config;
 
+import com.sky.cache.CacheLoadGuard;
+import com.sky.cache.GuardedCacheManager;
+import com.sky.properties.MenuCacheProperties;
+import com.sky.properties.RedisSerializerProperties;
+import com.sky.serializer.CompactRedisSerializer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 @Slf4j
 public class RedisConfiguration {
 
+    /**
+     * redis value 的序列化器，RedisTemplate 和 Spring Cache 共用
+     */
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(RedisSerializerProperties redisSerializerProperties){
+        if ("jdk".equals(redisSerializerProperties.getType())) {
+            return new JdkSerializationRedisSerializer();
+        }
+        return new CompactRedisSerializer(redisSerializerProperties.getCompressThreshold());
+    }
+
     @Bean
-    public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory){
+    public RedisTemplate redisTemplate(RedisConnectionFactory redisConnectionFactory, RedisSerializer<Object> redisValueSerializer){
         log.info("开始创建redis模板对象...");
         RedisTemplate redisTemplate = new RedisTemplate();
         //设置redis的连接工厂对象
         redisTemplate.setConnectionFactory(redisConnectionFactory);
         //设置redis key的序列化器
         redisTemplate.setKeySerializer(new StringRedisSerializer());
+        //设置redis value的序列化器
+        redisTemplate.setValueSerializer(redisValueSerializer);
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
         return redisTemplate;
     }
+
+    /**
+     * Spring Cache 使用与 RedisTemplate 相同的 value 序列化器
+     */
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(RedisSerializer<Object> redisValueSerializer,
+                                                           MenuCacheProperties menuCacheProperties){
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofSeconds(menuCacheProperties.getRedisTtlSeconds()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer));
+    }
+
+    /**
+     * Spring Cache 的缓存管理器，为每个缓存增加击穿保护
+     */
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     RedisCacheConfiguration redisCacheConfiguration,
+                                     CacheLoadGuard cacheLoadGuard){
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(redisCacheConfiguration)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new GuardedCacheManager(redisCacheManager, cacheLoadGuard);
+    }
+
+    /**
+     * redis 发布订阅的消息监听容器，用于接收缓存失效通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory){
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
 }
@@ -0,0 +1,24 @@
+package com.sky.config;
+
+import com.sky.properties.SnowflakeProperties;
+import com.sky.utils.SnowflakeIdUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 配置类，用于创建 SnowflakeIdUtil 对象
+ */
+@Configuration
+@Slf4j
+public class SnowflakeConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SnowflakeIdUtil snowflakeIdUtil(SnowflakeProperties snowflakeProperties) {
+        log.info("开始创建雪花算法id生成器对象: {}", snowflakeProperties);
+
+        return new SnowflakeIdUtil(snowflakeProperties.getWorkerId());
+    }
+}
@@ -1,5 +1,6 @@
 package com.sky.config;
 
+import com.sky.interceptor.CacheWarmupInterceptor;
 import com.sky.interceptor.JwtTokenAdminInterceptor;
 import com.sky.interceptor.JwtTokenUserInterceptor;
 import com.sky.json.JacksonObjectMapper;
@@ -34,6 +35,9 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     private JwtTokenUserInterceptor jwtTokenUserInterceptor;
 
+    @Autowired
+    private CacheWarmupInterceptor cacheWarmupInterceptor;
+
     /**
      * 注册自定义拦截器
      *
@@ -49,6 +53,10 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
                 .addPathPatterns("/user/**")
                 .excludePathPatterns("/user/user/login")
                 .excludePathPatterns("/user/shop/status");
+
+        // 菜品、套餐、分类修改后预热缓存
+        registry.addInterceptor(cacheWarmupInterceptor)
+                .addPathPatterns("/admin/dish/**", "/admin/setmeal/**", "/admin/category/**");
     }
 
     /**
@@ -0,0 +1,34 @@
+package com.sky.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/health")
+@Api(tags = "健康检查接口")
+public class HealthController {
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    /**
+     * 就绪检查，缓存预热完成前返回 503，负载均衡器据此决定是否转发请求
+     *
+     * @return
+     */
+    @GetMapping("/readiness")
+    @ApiOperation("就绪检查")
+    public ResponseEntity<String> readiness() {
+        ReadinessState state = applicationAvailability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(state.name());
+    }
+}
@@ -0,0 +1,41 @@
+package com.sky.controller.admin;
+
+import com.sky.cache.CacheLoadGuard;
+import com.sky.cache.CategoryCache;
+import com.sky.cache.MenuCache;
+import com.sky.result.Result;
+import com.sky.vo.CacheStatsVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/cache")
+@Slf4j
+@Api(tags = "缓存相关接口")
+public class CacheController {
+
+    @Autowired
+    private MenuCache menuCache;
+    @Autowired
+    private CacheLoadGuard cacheLoadGuard;
+    @Autowired
+    private CategoryCache categoryCache;
+
+    @GetMapping("/stats")
+    @ApiOperation("缓存命中统计")
+    public Result<List<CacheStatsVO>> stats(){
+        List<CacheStatsVO> stats = new ArrayList<>(menuCache.stats());
+        stats.add(cacheLoadGuard.stats());
+        stats.add(categoryCache.stats());
+
+        return Result.success(stats);
+    }
+}
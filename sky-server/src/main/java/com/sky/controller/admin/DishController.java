@@ -1,5 +1,6 @@
 package com.sky.controller.admin;
 
+import com.sky.cache.MenuCache;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
@@ -11,11 +12,9 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Set;
 
 @RestController
 @RequestMapping("/admin/dish")
@@ -26,7 +25,7 @@ public class DishController {
     @Autowired
     private DishService dishService;
     @Autowired
-    private RedisTemplate redisTemplate;
+    private MenuCache menuCache;
 
     @PostMapping
     @ApiOperation("新增菜品")
@@ -35,8 +34,7 @@ public class DishController {
         dishService.save(dishDTO);
 
         // 清理缓存数据
-        String key = "dish_" + dishDTO.getCategoryId();
-        redisTemplate.delete(key);
+        menuCache.evict(dishDTO.getCategoryId());
 
         return Result.success();
     }
@@ -57,8 +55,8 @@ public class DishController {
         log.info("菜品批量删除: {}", ids);
         dishService.deleteBatch(ids);
 
-        // 将所有的菜品缓存数据清理掉，所有以 dish_ 开头的 key
-        cleanCache("dish_*");
+        // 将所有的菜品缓存数据清理掉
+        menuCache.evictAll();
 
         return Result.success();
     }
@@ -69,8 +67,8 @@ public class DishController {
         log.info("修改菜品：{}", dishDTO);
         dishService.update(dishDTO);
 
-        // 将所有的菜品缓存数据清理掉，所有以 dish_ 开头的 key
-        cleanCache("dish_*");
+        // 将所有的菜品缓存数据清理掉
+        menuCache.evictAll();
 
         return Result.success();
     }
@@ -99,22 +97,8 @@ public class DishController {
         log.info("菜品起售、停售: {}", status);
         dishService.startOrStrop(status, id);
 
-
-        Set keys = redisTemplate.keys("dish_*");
-        cleanCache("dish_*");
+        menuCache.evictAll();
 
         return Result.success();
     }
-
-    /**
-     * 清理缓存数据
-     * @param pattern
-     */
-    private void cleanCache(String pattern){
-        // 将所有的缓存数据清理掉
-        Set keys = redisTemplate.keys(pattern);
-        if (keys != null) {
-            redisTemplate.delete(keys);
-        }
-    }
 }
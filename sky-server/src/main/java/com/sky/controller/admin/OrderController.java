@@ -1,14 +1,18 @@
 package com.sky.controller.admin;
 
 
+import com.sky.dto.OrdersBatchDTO;
 import com.sky.dto.OrdersCancelDTO;
 import com.sky.dto.OrdersConfirmDTO;
 import com.sky.dto.OrdersPageQueryDTO;
 import com.sky.dto.OrdersRejectionDTO;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
+import com.sky.queue.OrderSubmitQueue;
 import com.sky.service.OrderService;
+import com.sky.vo.OrderBatchResultVO;
 import com.sky.vo.OrderStatisticsVO;
+import com.sky.vo.OrderSubmitQueueVO;
 import com.sky.vo.OrderVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -24,6 +28,8 @@ public class OrderController {
 
     @Autowired
     private OrderService orderService;
+    @Autowired
+    private OrderSubmitQueue orderSubmitQueue;
 
     @GetMapping("/conditionSearch")
     @ApiOperation("订单搜索")
@@ -43,6 +49,14 @@ public class OrderController {
         return Result.success(orderStatisticsVO);
     }
 
+    @GetMapping("/submitQueue")
+    @ApiOperation("下单队列运行指标")
+    public Result<OrderSubmitQueueVO> submitQueue(){
+        OrderSubmitQueueVO orderSubmitQueueVO = orderSubmitQueue.metrics();
+
+        return Result.success(orderSubmitQueueVO);
+    }
+
     @GetMapping("/details/{id}")
     @ApiOperation("查询订单详情")
     public Result<OrderVO> getById(@PathVariable Long id){
@@ -95,4 +109,49 @@ public class OrderController {
 
         return Result.success();
     }
+
+    @PutMapping("/batch/confirm")
+    @ApiOperation("批量接单")
+    public Result<OrderBatchResultVO> confirmBatch(@RequestBody OrdersBatchDTO ordersBatchDTO){
+        log.info("批量接单: {}", ordersBatchDTO);
+        OrderBatchResultVO orderBatchResultVO = orderService.confirmBatch(ordersBatchDTO);
+
+        return Result.success(orderBatchResultVO);
+    }
+
+    @PutMapping("/batch/rejection")
+    @ApiOperation("批量拒单")
+    public Result<OrderBatchResultVO> rejectionBatch(@RequestBody OrdersBatchDTO ordersBatchDTO){
+        log.info("批量拒单: {}", ordersBatchDTO);
+        OrderBatchResultVO orderBatchResultVO = orderService.rejectionBatch(ordersBatchDTO);
+
+        return Result.success(orderBatchResultVO);
+    }
+
+    @PutMapping("/batch/cancel")
+    @ApiOperation("批量取消订单")
+    public Result<OrderBatchResultVO> cancelBatch(@RequestBody OrdersBatchDTO ordersBatchDTO){
+        log.info("批量取消订单: {}", ordersBatchDTO);
+        OrderBatchResultVO orderBatchResultVO = orderService.cancelBatchByAdmin(ordersBatchDTO);
+
+        return Result.success(orderBatchResultVO);
+    }
+
+    @PutMapping("/batch/delivery")
+    @ApiOperation("批量派送订单")
+    public Result<OrderBatchResultVO> deliveryBatch(@RequestBody OrdersBatchDTO ordersBatchDTO){
+        log.info("批量派送订单: {}", ordersBatchDTO);
+        OrderBatchResultVO orderBatchResultVO = orderService.deliveryBatch(ordersBatchDTO);
+
+        return Result.success(orderBatchResultVO);
+    }
+
+    @PutMapping("/batch/complete")
+    @ApiOperation("批量完成订单")
+    public Result<OrderBatchResultVO> completeBatch(@RequestBody OrdersBatchDTO ordersBatchDTO){
+        log.info("批量完成订单: {}", ordersBatchDTO);
+        OrderBatchResultVO orderBatchResultVO = orderService.completeBatch(ordersBatchDTO);
+
+        return Result.success(orderBatchResultVO);
+    }
 }
@@ -36,9 +36,9 @@ public class SetmealController {
 
     @DeleteMapping
     @ApiOperation("批量删除套餐")
-    @CacheEvict(cacheNames = "setmealCache", allEntries = true)
     public Result delete(@RequestParam List<Long> ids){
         log.info("批量删除套餐：{}", ids);
+        // 由 service 在事务提交后只清理被删除套餐所属分类的缓存
         setmealService.deleteBatch(ids);
 
         return Result.success();
@@ -46,9 +46,9 @@ public class SetmealController {
 
     @PutMapping
     @ApiOperation("修改套餐")
-    @CacheEvict(cacheNames = "setmealCache", allEntries = true)
     public Result update(@RequestBody SetmealDTO setmealDTO){
         log.info("修改套餐：{}", setmealDTO);
+        // 由 service 清理套餐修改前、修改后所属分类的缓存
         setmealService.update(setmealDTO);
 
         return Result.success();
@@ -56,9 +56,9 @@ public class SetmealController {
 
     @PostMapping("/status/{status}")
     @ApiOperation("套餐起售、停售")
-    @CacheEvict(cacheNames = "setmealCache", allEntries = true)
     public Result startOrStop(@PathVariable Integer status, Long id){
         log.info("套餐起售、停售：{}, {}", status,id);
+        // 由 service 只清理套餐所属分类的缓存
         setmealService.startOrStop(status, id);
 
         return Result.success();
@@ -0,0 +1,70 @@
+package com.sky.controller.user;
+
+import com.sky.menu.MenuSnapshot;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/user/menu")
+@Slf4j
+@Api(tags = "C端-菜单接口")
+public class MenuController {
+
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+
+    /**
+     * 查询完整菜单：所有分类及分类下的菜品、套餐
+     * 客户端携带 If-None-Match 且菜单没有变化时返回 304，不返回内容
+     *
+     * @param request
+     * @param response
+     */
+    @GetMapping("/snapshot")
+    @ApiOperation("查询完整菜单")
+    public void snapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MenuSnapshot.Snapshot snapshot = menuSnapshot.get();
+
+        response.setHeader(HttpHeaders.ETAG, snapshot.getEtag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 直接输出生成好的字节数组，不再经过 json 序列化
+        byte[] body = snapshot.getBody();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * If-None-Match 中可能包含多个 ETag，以逗号分隔
+     */
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package com.sky.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * redis hash 计数与数据库对账
+ * 先读取 hash 的当前值，再从数据库统计，两者之差为偏差。已提交但尚未写入 redis 的增量也会表现为偏差，
+ * 因此只有连续两次对账得到相同的偏差时才修正；修正由 lua 脚本执行，hash 在对账期间被修改过时放弃本次修正，
+ * 不会覆盖其他实例写入的增量。hash 不存在时直接用数据库的值初始化
+ */
+@Component
+@Slf4j
+public class CounterReconciler {
+
+    // 上一次对账得到的偏差的 key 后缀
+    private static final String DRIFT_SUFFIX = "_drift";
+    // 上一次对账得到的偏差保留的时间(秒)
+    private static final long DRIFT_TTL_SECONDS = 3600;
+
+    // KEYS[1] hash；ARGV[1] 过期时间(秒)，0 不过期；之后为 字段、对账前读取的值、修正量 三个一组
+    private static final String CORRECT_SCRIPT =
+            "for i = 2, #ARGV, 3 do " +
+            "  if tonumber(redis.call('HGET', KEYS[1], ARGV[i]) or '0') ~= tonumber(ARGV[i + 1]) then return 0 end " +
+            "end " +
+            "for i = 2, #ARGV, 3 do " +
+            "  redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 2]) " +
+            "end " +
+            "if tonumber(ARGV[1]) > 0 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> CORRECT = new DefaultRedisScript<>(CORRECT_SCRIPT, Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 对账，需要在任务锁中执行
+     *
+     * @param key        hash 的 key
+     * @param loader     从数据库统计各字段的值，hash 中有而 loader 没有返回的字段视为 0
+     * @param ttlSeconds hash 的过期时间(秒)，0 表示不过期
+     * @return 修正的偏差，没有修正时为空
+     */
+    public Map<String, Long> reconcile(String key, Supplier<Map<String, Long>> loader, long ttlSeconds) {
+        Map<String, Long> before = toLongMap(stringRedisTemplate.opsForHash().entries(key));
+        Map<String, Long> actual = loader.get();
+
+        Set<String> fields = new TreeSet<>(before.keySet());
+        fields.addAll(actual.keySet());
+        Map<String, Long> drift = new TreeMap<>();
+        for (String field : fields) {
+            long value = actual.getOrDefault(field, 0L) - before.getOrDefault(field, 0L);
+            if (value != 0) {
+                drift.put(field, value);
+            }
+        }
+
+        String driftKey = key + DRIFT_SUFFIX;
+        if (drift.isEmpty()) {
+            stringRedisTemplate.delete(driftKey);
+            return Collections.emptyMap();
+        }
+        // hash 已存在时，偏差需要与上一次对账的结果相同
+        if (!before.isEmpty()) {
+            String previous = stringRedisTemplate.opsForValue().get(driftKey);
+            if (!drift.toString().equals(previous)) {
+                stringRedisTemplate.opsForValue().set(driftKey, drift.toString(), DRIFT_TTL_SECONDS, TimeUnit.SECONDS);
+                return Collections.emptyMap();
+            }
+        }
+
+        List<String> args = new ArrayList<>(1 + fields.size() * 3);
+        args.add(String.valueOf(ttlSeconds));
+        for (String field : fields) {
+            args.add(field);
+            args.add(String.valueOf(before.getOrDefault(field, 0L)));
+            args.add(String.valueOf(drift.getOrDefault(field, 0L)));
+        }
+        Long corrected = stringRedisTemplate.execute(CORRECT, Collections.singletonList(key), args.toArray());
+        stringRedisTemplate.delete(driftKey);
+
+        if (corrected == null || corrected == 0) {
+            log.info("{} 在对账期间被修改，放弃本次修正", key);
+            return Collections.emptyMap();
+        }
+        return drift;
+    }
+
+    private Map<String, Long> toLongMap(Map<Object, Object> hash) {
+        Map<String, Long> map = new HashMap<>();
+        hash.forEach((field, value) -> map.put(field.toString(), Long.parseLong(value.toString())));
+        return map;
+    }
+}
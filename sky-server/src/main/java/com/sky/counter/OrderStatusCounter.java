@@ -0,0 +1,145 @@
+package com.sky.counter;
+
+import com.sky.dto.OrderStatusCountDTO;
+import com.sky.entity.Orders;
+import com.sky.lock.TaskLock;
+import com.sky.mapper.OrderMapper;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 各个状态的订单数量计数器
+ * 计数保存在 redis 的 hash order_status_count 中 (字段为状态值)，订单状态流转后由 HINCRBY 增量维护，
+ * 所有实例共享同一份计数，统计接口不再查询数据库；
+ * 由定时任务在一个实例上定期与数据库对账，修正可能出现的偏差
+ */
+@Component
+@Slf4j
+public class OrderStatusCounter {
+
+    // 计数的 key
+    public static final String KEY = "order_status_count";
+
+    // 对账任务锁的过期时间(秒)
+    private static final long LOCK_TTL_SECONDS = 60;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private CounterReconciler counterReconciler;
+    @Autowired
+    private TaskLock taskLock;
+
+    /**
+     * 获取指定状态的订单数量
+     *
+     * @param status 订单状态
+     * @return
+     */
+    public Integer get(Integer status) {
+        Object value = stringRedisTemplate.opsForHash().get(KEY, String.valueOf(status));
+        return value == null ? 0 : (int) Math.max(Long.parseLong(value.toString()), 0);
+    }
+
+    /**
+     * 新增订单
+     *
+     * @param status 新订单的状态
+     */
+    public void increment(Integer status) {
+        add(status, 1, null, 0);
+    }
+
+    /**
+     * 订单状态流转
+     *
+     * @param from 原状态
+     * @param to   新状态
+     */
+    public void transition(Integer from, Integer to) {
+        transition(from, to, 1);
+    }
+
+    /**
+     * 多个订单发生相同的状态流转
+     *
+     * @param from  原状态
+     * @param to    新状态
+     * @param count 订单数量
+     */
+    public void transition(Integer from, Integer to, int count) {
+        if (from == null || from.equals(to) || count <= 0) {
+            return;
+        }
+        add(from, -count, to, count);
+    }
+
+    /**
+     * 订单从热表移出（归档）
+     *
+     * @param status 订单状态
+     * @param count  订单数量
+     */
+    public void remove(Integer status, int count) {
+        if (count <= 0) {
+            return;
+        }
+        add(status, -count, null, 0);
+    }
+
+    /**
+     * 在一个实例上通过一次分组聚合查询与数据库对账
+     */
+    public void reconcile() {
+        taskLock.runExclusively(KEY, LOCK_TTL_SECONDS, () -> {
+            Map<String, Long> drift = counterReconciler.reconcile(KEY, this::countFromDb, 0);
+            drift.forEach((status, value) -> log.info("订单状态 {} 的计数偏差为 {}，已修正", status, value));
+        });
+    }
+
+    private Map<String, Long> countFromDb() {
+        Map<String, Long> counts = new HashMap<>();
+        for (int status = Orders.PENDING_PAYMENT; status <= Orders.CANCELLED; status++) {
+            counts.put(String.valueOf(status), 0L);
+        }
+        for (OrderStatusCountDTO dto : orderMapper.countGroupByStatus()) {
+            if (dto.getStatus() != null && counts.containsKey(String.valueOf(dto.getStatus()))) {
+                counts.put(String.valueOf(dto.getStatus()), (long) dto.getNumber());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 事务提交后写入 redis，redis 不可用时只记录日志，由对账修正
+     */
+    private void add(Integer status, long count, Integer otherStatus, long otherCount) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.hashCommands().hIncrBy(bytes(KEY), bytes(String.valueOf(status)), count);
+                    if (otherStatus != null) {
+                        connection.hashCommands().hIncrBy(bytes(KEY), bytes(String.valueOf(otherStatus)), otherCount);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("更新订单状态计数失败，等待对账修正", e);
+            }
+        });
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,315 @@
+package com.sky.counter;
+
+import com.sky.constant.StatusConstant;
+import com.sky.dto.OrderStatusCountDTO;
+import com.sky.entity.DailyStat;
+import com.sky.entity.Orders;
+import com.sky.entity.User;
+import com.sky.lock.TaskLock;
+import com.sky.mapper.DailyStatMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.OrderMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工作台数据计数器
+ * 下单、订单状态流转、新用户注册时在本实例内存中累加增量 (LongAdder)，定时批量写入 redis 的 hash 并读回合计值，
+ * 工作台查询只读取内存，不访问数据库和 redis；
+ * 当天数据按日期保存在 workspace_日期 中，跨天后自动从 0 开始；菜品、套餐起售停售数量保存在 workspace_menu 中，
+ * 定时任务定期在一个实例上与数据库对账，修正可能出现的偏差
+ */
+@Component
+@Slf4j
+public class WorkspaceCounter {
+
+    // 当天数据的 key 前缀
+    public static final String DAY_KEY = "workspace_";
+    // 菜品、套餐起售停售数量的 key
+    public static final String MENU_KEY = "workspace_menu";
+
+    // 营业额(分)
+    public static final String TURNOVER = "turnover";
+    // 新增用户数
+    public static final String NEW_USERS = "new_users";
+    // 当天下单的订单中各个状态的数量，字段名为 status_状态
+    public static final String STATUS = "status_";
+    // 各个状态的菜品数量，字段名为 dish_状态
+    public static final String DISH = "dish_";
+    // 各个状态的套餐数量，字段名为 setmeal_状态
+    public static final String SETMEAL = "setmeal_";
+
+    // 当天数据在 redis 中保留的天数
+    private static final long DAY_KEY_TTL_DAYS = 2;
+    // 对账任务锁的名称和过期时间(秒)
+    private static final String LOCK_NAME = "workspace_reconcile";
+    private static final long LOCK_TTL_SECONDS = 60;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private DailyStatMapper dailyStatMapper;
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private CounterReconciler counterReconciler;
+    @Autowired
+    private TaskLock taskLock;
+
+    // key: 日期, value: 字段 -> 本实例尚未写入 redis 的增量
+    private final Map<LocalDate, Map<String, LongAdder>> deltas = new ConcurrentHashMap<>();
+
+    // 最近一次从 redis 读回的合计值
+    private volatile Snapshot snapshot = new Snapshot(null, Collections.emptyMap(), Collections.emptyMap());
+
+    /**
+     * 新增订单
+     *
+     * @param ordersList 新订单，需要包含下单时间和状态
+     */
+    public void ordersCreated(List<Orders> ordersList) {
+        TransactionUtil.afterCommit(() -> {
+            for (Orders orders : ordersList) {
+                add(orders.getOrderTime().toLocalDate(), STATUS + orders.getStatus(), 1);
+            }
+        });
+    }
+
+    /**
+     * 订单状态流转，订单完成时计入营业额
+     *
+     * @param ordersList 流转成功的订单，需要包含下单时间和金额
+     * @param from       原状态
+     * @param to         新状态
+     */
+    public void transition(List<Orders> ordersList, Integer from, Integer to) {
+        if (ordersList.isEmpty() || from.equals(to)) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            for (Orders orders : ordersList) {
+                LocalDate date = orders.getOrderTime().toLocalDate();
+                add(date, STATUS + from, -1);
+                add(date, STATUS + to, 1);
+                if (Orders.COMPLETED.equals(to) && orders.getAmount() != null) {
+                    add(date, TURNOVER, cents(orders.getAmount()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 新用户注册
+     *
+     * @param user 新用户，需要包含注册时间
+     */
+    public void userCreated(User user) {
+        TransactionUtil.afterCommit(() -> add(user.getCreateTime().toLocalDate(), NEW_USERS, 1));
+    }
+
+    /**
+     * 菜品、套餐发生变化，重新统计起售停售数量
+     */
+    public void menuChanged() {
+        TransactionUtil.afterCommit(this::reloadMenu);
+    }
+
+    /**
+     * 获取当天的数据，合计值加上本实例尚未写入 redis 的增量
+     *
+     * @param field 字段
+     * @return
+     */
+    public long get(String field) {
+        LocalDate today = LocalDate.now();
+        Snapshot current = snapshot;
+        long value = today.equals(current.date) ? current.day.getOrDefault(field, 0L) : 0;
+
+        Map<String, LongAdder> todayDeltas = deltas.get(today);
+        if (todayDeltas != null) {
+            LongAdder delta = todayDeltas.get(field);
+            if (delta != null) {
+                value += delta.sum();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 获取菜品、套餐的起售停售数量
+     *
+     * @param field 字段
+     * @return
+     */
+    public long getMenu(String field) {
+        return snapshot.menu.getOrDefault(field, 0L);
+    }
+
+    /**
+     * 将本实例的增量批量写入 redis，并读回当天数据和菜品、套餐数量的合计值；
+     * redis 不可用时增量保留在内存中，下次继续写入
+     */
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now();
+        // 只保留当天和前一天的增量，更早的数据已不再展示
+        deltas.keySet().removeIf(date -> date.isBefore(today.minusDays(1)));
+
+        Map<LocalDate, Map<String, Long>> pending = new HashMap<>();
+        deltas.forEach((date, fields) -> fields.forEach((field, delta) -> {
+            long value = delta.sum();
+            if (value != 0) {
+                pending.computeIfAbsent(date, k -> new HashMap<>()).put(field, value);
+            }
+        }));
+
+        List<Object> results;
+        try {
+            results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                pending.forEach((date, fields) -> {
+                    byte[] key = bytes(DAY_KEY + date);
+                    fields.forEach((field, value) -> connection.hashCommands().hIncrBy(key, bytes(field), value));
+                    connection.keyCommands().expire(key, TimeUnit.DAYS.toSeconds(DAY_KEY_TTL_DAYS));
+                });
+                connection.hashCommands().hGetAll(bytes(DAY_KEY + today));
+                connection.hashCommands().hGetAll(bytes(MENU_KEY));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("工作台数据写入 redis 失败，增量保留在内存中", e);
+            return;
+        }
+
+        // 已写入 redis 的增量从内存中减去，期间新产生的增量保留
+        pending.forEach((date, fields) -> fields.forEach((field, value) -> deltas.get(date).get(field).add(-value)));
+        snapshot = new Snapshot(today, toLongMap(results.get(results.size() - 2)), toLongMap(results.get(results.size() - 1)));
+    }
+
+    /**
+     * 启动时对账，redis 中没有数据时从数据库统计，再读回合计值
+     */
+    public void restore() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("加载工作台数据失败，等待下次对账", e);
+        }
+    }
+
+    /**
+     * 在一个实例上与数据库对账当天数据和菜品、套餐数量
+     * 由 CounterReconciler 按偏差修正，不会覆盖其他实例已写入的增量，也不会重复计算对账期间写入的增量
+     */
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        String key = DAY_KEY + today;
+        taskLock.runExclusively(LOCK_NAME, LOCK_TTL_SECONDS, () -> {
+            Map<String, Long> drift = counterReconciler.reconcile(key, () -> countDay(today), TimeUnit.DAYS.toSeconds(DAY_KEY_TTL_DAYS));
+            drift.forEach((field, value) -> log.info("工作台数据 {} 的偏差为 {}，已修正", field, value));
+            drift = counterReconciler.reconcile(MENU_KEY, this::countMenu, 0);
+            drift.forEach((field, value) -> log.info("工作台数据 {} 的偏差为 {}，已修正", field, value));
+        });
+        flush();
+    }
+
+    /**
+     * 从数据库统计当天数据
+     */
+    private Map<String, Long> countDay(LocalDate date) {
+        Map<String, Long> day = new HashMap<>();
+        for (int status = Orders.PENDING_PAYMENT; status <= Orders.CANCELLED; status++) {
+            day.put(STATUS + status, 0L);
+        }
+        for (OrderStatusCountDTO dto : orderMapper.countGroupByStatusSince(date.atStartOfDay())) {
+            day.put(STATUS + dto.getStatus(), (long) dto.getNumber());
+        }
+        List<DailyStat> dailyStats = dailyStatMapper.list(date, date);
+        DailyStat dailyStat = dailyStats.isEmpty() ? null : dailyStats.get(0);
+        day.put(TURNOVER, dailyStat == null ? 0 : cents(dailyStat.getTurnover()));
+        day.put(NEW_USERS, dailyStat == null ? 0L : dailyStat.getNewUserCount());
+        return day;
+    }
+
+    /**
+     * 从数据库统计菜品、套餐的起售停售数量
+     */
+    private Map<String, Long> countMenu() {
+        Map<String, Long> menu = new HashMap<>();
+        for (Integer status : new Integer[]{StatusConstant.ENABLE, StatusConstant.DISABLE}) {
+            menu.put(DISH + status, (long) dishMapper.countByStatus(status));
+            menu.put(SETMEAL + status, (long) setmealMapper.countByStatus(status));
+        }
+        return menu;
+    }
+
+    /**
+     * 重新统计菜品、套餐的起售停售数量
+     */
+    private synchronized void reloadMenu() {
+        Map<String, Long> menu = countMenu();
+        Map<String, String> values = new HashMap<>();
+        menu.forEach((field, value) -> values.put(field, String.valueOf(value)));
+        stringRedisTemplate.opsForHash().putAll(MENU_KEY, values);
+
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(current.date, current.day, menu);
+    }
+
+    private void add(LocalDate date, String field, long value) {
+        deltas.computeIfAbsent(date, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(field, k -> new LongAdder())
+                .add(value);
+    }
+
+    private long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> toLongMap(Object hash) {
+        Map<String, Long> map = new HashMap<>();
+        if (hash instanceof Map) {
+            ((Map<String, String>) hash).forEach((field, value) -> map.put(field, Long.parseLong(value)));
+        }
+        return map;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从 redis 读回的合计值
+     */
+    private static class Snapshot {
+        private final LocalDate date;//当天数据对应的日期
+        private final Map<String, Long> day;//当天数据
+        private final Map<String, Long> menu;//菜品、套餐数量
+
+        private Snapshot(LocalDate date, Map<String, Long> day, Map<String, Long> menu) {
+            this.date = date;
+            this.day = day;
+            this.menu = menu;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sky.interceptor;
+
+import com.sky.cache.CacheWarmer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 菜品、套餐、分类修改后触发缓存预热的拦截器
+ * 在请求处理完成之后执行，此时 @CacheEvict 等缓存清理已经完成
+ */
+@Component
+public class CacheWarmupInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // 查询请求不会修改菜单
+        if (HttpMethod.GET.matches(request.getMethod()) || ex != null) {
+            return;
+        }
+        cacheWarmer.warmUpAsync();
+    }
+}
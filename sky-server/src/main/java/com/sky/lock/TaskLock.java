@@ -0,0 +1,64 @@
+package com.sky.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务锁，多个实例中同一时间只有一个实例执行同一个任务
+ * 加锁使用 SET NX EX，值为本次加锁的随机 token，释放时由 lua 脚本比较 token 后删除，不会误删其他实例的锁；
+ * 实例宕机时锁在过期后自动释放
+ */
+@Component
+@Slf4j
+public class TaskLock {
+
+    // 锁的 key 前缀
+    public static final String KEY_PREFIX = "task_lock_";
+
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 获取到锁时执行任务，锁已被其他实例持有或 redis 不可用时跳过本次执行
+     *
+     * @param name       任务名称
+     * @param ttlSeconds 锁的过期时间(秒)，需要大于任务的最长执行时间
+     * @param task       任务
+     * @return 是否执行了任务
+     */
+    public boolean runExclusively(String name, long ttlSeconds, Runnable task) {
+        String key = KEY_PREFIX + name;
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, token, ttlSeconds, TimeUnit.SECONDS))) {
+                log.debug("任务 {} 正在其他实例执行，跳过", name);
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("获取任务锁 {} 失败，跳过本次执行", name, e);
+            return false;
+        }
+
+        try {
+            task.run();
+            return true;
+        } finally {
+            try {
+                stringRedisTemplate.execute(RELEASE, Collections.singletonList(key), token);
+            } catch (Exception e) {
+                log.warn("释放任务锁 {} 失败，等待过期", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.sky.mapper;
+
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.DailyStat;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 每日汇总表 daily_stat 的数据访问
+ * 订单、用户变化时增量累加，定时任务按日期范围从订单表、用户表重新汇总；商品销量排行也在重新汇总时从订单明细精确统计；
+ * 表由 sql/migration/V3__daily_stat.sql 创建
+ */
+@Mapper
+public interface DailyStatMapper {
+
+    /**
+     * 按日期累加汇总数据，日期不存在时插入
+     * @param list 每天的增量
+     */
+    void add(List<DailyStat> list);
+
+    /**
+     * 删除日期范围内的汇总数据
+     * @param begin 开始日期
+     * @param end 结束日期（包含）
+     */
+    @Update("delete from daily_stat where stat_date between #{begin} and #{end}")
+    void deleteRange(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    /**
+     * 从订单表和订单归档表重新汇总订单数据
+     * @param begin 下单时间起点（包含）
+     * @param end 下单时间终点（不包含）
+     */
+    void rebuildOrders(@Param("begin") LocalDateTime begin, @Param("end") LocalDateTime end);
+
+    /**
+     * 从用户表重新汇总新增用户数
+     * @param begin 注册时间起点（包含）
+     * @param end 注册时间终点（不包含）
+     */
+    void rebuildUsers(@Param("begin") LocalDateTime begin, @Param("end") LocalDateTime end);
+
+    /**
+     * 查询日期范围内的汇总数据，没有数据的日期不返回
+     * @param begin 开始日期
+     * @param end 结束日期（包含）
+     * @return
+     */
+    @Select("select * from daily_stat where stat_date between #{begin} and #{end} order by stat_date")
+    List<DailyStat> list(@Param("begin") LocalDate begin, @Param("end") LocalDate end);
+
+    /**
+     * 游标查询日期范围内的汇总数据，逐行交给 handler 处理，不在内存中保存整个结果集
+     * @param begin 开始日期
+     * @param end 结束日期（包含）
+     * @param handler 按日期升序接收每一行
+     */
+    @Select("select * from daily_stat where stat_date between #{begin} and #{end} order by stat_date")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(DailyStat.class)
+    void stream(@Param("begin") LocalDate begin, @Param("end") LocalDate end, ResultHandler<DailyStat> handler);
+
+    /**
+     * 统计指定日期之前的用户总量
+     * @param date 日期（不包含）
+     * @return
+     */
+    @Select("select coalesce(sum(new_user_count), 0) from daily_stat where stat_date < #{date}")
+    Integer sumNewUserBefore(LocalDate date);
+
+    /**
+     * 精确统计时间范围内已完成订单的商品销量排行，包含归档订单
+     * @param begin 下单时间起点（包含）
+     * @param end 下单时间终点（不包含）
+     * @param limit 查询条数
+     * @return 按销量倒序
+     */
+    List<GoodsSalesDTO> getSalesTop(@Param("begin") LocalDateTime begin,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("limit") int limit);
+}
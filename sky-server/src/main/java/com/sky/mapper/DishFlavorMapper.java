@@ -27,4 +27,11 @@ public interface DishFlavorMapper {
 
     @Select("select * from dish_flavor where dish_id = #{dishId}")
     List<DishFlavor> getFlavorsByDishId(Long id);
+
+    /**
+     * 根据菜品 id 集合批量查询口味数据
+     * @param dishIds 菜品id集合
+     * @return
+     */
+    List<DishFlavor> getFlavorsByDishIds(List<Long> dishIds);
 }
@@ -22,6 +22,14 @@ public interface DishMapper {
     @Select("select count(*) from dish where category_id = #{categoryId}")
     Integer countByCategoryId(Long categoryId);
 
+    /**
+     * 根据状态统计菜品数量
+     * @param status
+     * @return
+     */
+    @Select("select count(*) from dish where status = #{status}")
+    Integer countByStatus(Integer status);
+
     @AutoFill(value = OperationType.INSERT)
     void insert(Dish dish);
 
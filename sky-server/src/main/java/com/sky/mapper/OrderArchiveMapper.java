@@ -0,0 +1,70 @@
+package com.sky.mapper;
+
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单归档表 orders_archive、order_detail_archive 的数据访问
+ * 归档表与热表结构相同，只保存已完成、已取消的历史订单，由 sql/migration/V2__orders_archive.sql 创建
+ */
+@Mapper
+public interface OrderArchiveMapper {
+
+    /**
+     * 查询一批可归档的订单：处于终态，且下单时间早于 before
+     * @param statuses 可归档的订单状态
+     * @param before 归档边界
+     * @param limit 查询条数
+     * @return 订单 id 和状态
+     */
+    List<Orders> getArchivable(@Param("statuses") List<Integer> statuses,
+                               @Param("before") LocalDateTime before,
+                               @Param("limit") int limit);
+
+    /**
+     * 将订单从热表复制到归档表
+     * @param ids 订单id集合
+     * @return 复制的订单数
+     */
+    int insertOrders(List<Long> ids);
+
+    /**
+     * 将订单明细从热表复制到归档表
+     * @param ids 订单id集合
+     */
+    void insertOrderDetails(List<Long> ids);
+
+    /**
+     * 从热表删除已归档的订单
+     * @param ids 订单id集合
+     * @return 删除的订单数
+     */
+    int deleteOrders(List<Long> ids);
+
+    /**
+     * 从热表删除已归档的订单明细
+     * @param ids 订单id集合
+     */
+    void deleteOrderDetails(List<Long> ids);
+
+    /**
+     * 根据 主键 查询归档订单
+     * @param id 订单id
+     * @return
+     */
+    @Select("select * from orders_archive where id = #{id}")
+    Orders getById(Long id);
+
+    /**
+     * 根据订单 id 集合查询归档的订单明细
+     * @param orderIds 订单id集合
+     * @return
+     */
+    List<OrderDetail> getDetailsByOrderIds(List<Long> orderIds);
+}
@@ -13,4 +13,11 @@ public interface OrderDetailMapper {
 
     @Select("select * from order_detail where order_id = #{orderId}")
     List<OrderDetail> getByOrderId(Long orderId);
+
+    /**
+     * 根据订单 id 集合批量查询订单明细
+     * @param orderIds 订单id集合
+     * @return
+     */
+    List<OrderDetail> getByOrderIds(List<Long> orderIds);
 }
@@ -1,21 +1,47 @@
 package com.sky.mapper;
 
 import com.github.pagehelper.Page;
+import com.sky.dto.OrderStatusCountDTO;
 import com.sky.dto.OrdersPageQueryDTO;
 import com.sky.entity.Orders;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 @Mapper
 public interface OrderMapper {
     void insert(Orders orders);
 
+    /**
+     * 批量插入订单，订单 id 由调用方生成
+     * @param ordersList
+     */
+    void insertBatch(List<Orders> ordersList);
+
     /**
      * 分页查询订单信息
      */
     Page<Orders> pageQuery(OrdersPageQueryDTO ordersPageQueryDTO);
 
+    /**
+     * 游标分页查询订单信息，按 (下单时间, id) 倒序，从游标位置之后开始查询
+     * @param ordersPageQueryDTO
+     * @param limit 查询条数
+     * @return
+     */
+    List<Orders> pageQueryByCursor(@Param("query") OrdersPageQueryDTO ordersPageQueryDTO, @Param("limit") int limit);
+
+    /**
+     * 统计满足分页查询条件的订单数量
+     * @param ordersPageQueryDTO
+     * @return
+     */
+    long countPageQuery(@Param("query") OrdersPageQueryDTO ordersPageQueryDTO);
+
     /**
      * 根据 主键 查询订单信息
      * @param id 订单id
@@ -26,6 +52,42 @@ public interface OrderMapper {
 
     void update(Orders orders1);
 
-    @Select("select count(id) from orders where status = #{status}")
-    Integer countStatus(Integer status);
+    /**
+     * 批量修改订单状态，只修改当前状态为 fromStatus 的订单
+     * @param ids 订单id集合
+     * @param fromStatus 订单当前应处于的状态
+     * @param orders 需要修改的字段
+     * @return 实际修改的订单数
+     */
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("fromStatus") Integer fromStatus, @Param("orders") Orders orders);
+
+    /**
+     * 根据 id 集合批量查询订单，返回订单状态、支付状态、下单时间和金额
+     * @param ids 订单id集合
+     * @return
+     */
+    List<Orders> getStatusByIds(List<Long> ids);
+
+    /**
+     * 根据状态查询订单id、下单时间和开始派送时间
+     * @param status 订单状态
+     * @return
+     */
+    @Select("select id, order_time, delivery_start_time from orders where status = #{status}")
+    List<Orders> getIdAndTimesByStatus(Integer status);
+
+    /**
+     * 一次扫描统计各个状态的订单数量
+     * @return
+     */
+    @Select("select status, count(id) number from orders group by status")
+    List<OrderStatusCountDTO> countGroupByStatus();
+
+    /**
+     * 统计指定时间之后下单的订单中，各个状态的订单数量
+     * @param begin 下单时间起点（包含）
+     * @return
+     */
+    @Select("select status, count(id) number from orders where order_time >= #{begin} group by status")
+    List<OrderStatusCountDTO> countGroupByStatusSince(LocalDateTime begin);
 }
@@ -20,11 +20,26 @@ public interface SetmealMapper {
     @Select("select count(*) from setmeal where category_id = #{categoryById}")
     Integer countByCategoryId(Long categoryById);
 
+    /**
+     * 根据状态统计套餐数量
+     * @param status
+     * @return
+     */
+    @Select("select count(*) from setmeal where status = #{status}")
+    Integer countByStatus(Integer status);
+
     @AutoFill(OperationType.INSERT)
     void insert(Setmeal setmeal);
 
     List<Long> getStatusByIds(List<Long> ids);
 
+    /**
+     * 查询套餐所属的分类id，已去重
+     * @param ids 套餐id集合
+     * @return
+     */
+    List<Long> getCategoryIdsByIds(List<Long> ids);
+
     void deleteBatch(List<Long> ids);
 
     @AutoFill(OperationType.UPDATE)
@@ -40,6 +40,12 @@ public interface ShoppingCartMapper {
     @Delete("delete from shopping_cart where id = #{id}")
     void deleteById(Long id);
 
+    /**
+     * 根据 id 集合批量删除
+     * @param ids 购物车id集合
+     */
+    void deleteByIds(List<Long> ids);
+
     /**
      * 批量添加
      * @param shoppingCartList 购物车表
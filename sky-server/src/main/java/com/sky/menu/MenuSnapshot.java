@@ -0,0 +1,230 @@
+package com.sky.menu;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Category;
+import com.sky.entity.Dish;
+import com.sky.entity.Setmeal;
+import com.sky.json.JacksonObjectMapper;
+import com.sky.mapper.CategoryMapper;
+import com.sky.service.DishService;
+import com.sky.service.SetmealService;
+import com.sky.utils.TransactionUtil;
+import com.sky.vo.MenuCategoryVO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * C端完整菜单快照：所有启用的分类，以及分类下起售中的菜品、套餐
+ * 每个分类单独序列化为 json 片段并缓存，菜品、套餐、分类变更时只重新生成受影响分类的片段，再拼接为完整的响应；
+ * 快照在下一次请求时生成，请求直接输出生成好的字节数组
+ */
+@Component
+@Slf4j
+public class MenuSnapshot {
+
+    // 快照失效通知的频道，通知内容为分类id，ALL 表示全部失效，LIST 表示只有分类列表变化
+    public static final String INVALIDATE_CHANNEL = "menu_snapshot_invalidate";
+    private static final String ALL = "*";
+    private static final String LIST = "list";
+
+    // 与 Result.success(data) 序列化结果相同的外层结构
+    private static final byte[] PREFIX = "{\"code\":1,\"msg\":null,\"data\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+    // 菜品、套餐服务在变更时会调用本类，延迟注入避免循环依赖
+    @Lazy
+    @Autowired
+    private DishService dishService;
+    @Lazy
+    @Autowired
+    private SetmealService setmealService;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // 与 MVC 返回 json 时使用相同的格式
+    private final ObjectMapper objectMapper = new JacksonObjectMapper();
+
+    // 分类id -> 该分类的 json 片段
+    private final Map<Long, byte[]> fragments = new ConcurrentHashMap<>();
+    // 需要重新生成片段的分类
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean allDirty = new AtomicBoolean(true);
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        // 订阅失效通知，其他实例修改菜单后本实例也需要重新生成
+        redisMessageListenerContainer.addMessageListener((message, pattern) ->
+                markDirty(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 获取最新的菜单快照，有变更时重新生成
+     *
+     * @return
+     */
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (current != null && !stale.get()) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (snapshot == null || stale.get()) {
+                try {
+                    snapshot = rebuild();
+                } catch (RuntimeException e) {
+                    allDirty.set(true);
+                    stale.set(true);
+                    if (snapshot == null) {
+                        throw e;
+                    }
+                    log.warn("生成菜单快照失败，继续使用旧快照", e);
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 分类下的菜品或套餐发生变化，事务提交后通知所有实例
+     *
+     * @param categoryId 分类id
+     */
+    public void invalidate(Long categoryId) {
+        publishAfterCommit(String.valueOf(categoryId));
+    }
+
+    /**
+     * 分类列表发生变化（新增、排序等），已生成的片段仍然有效
+     */
+    public void invalidateCategoryList() {
+        publishAfterCommit(LIST);
+    }
+
+    /**
+     * 全部重新生成
+     */
+    public void invalidateAll() {
+        publishAfterCommit(ALL);
+    }
+
+    private void publishAfterCommit(String body) {
+        TransactionUtil.afterCommit(() -> {
+            // 本实例立即失效，保证修改后马上能读到新数据
+            markDirty(body);
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, body);
+        });
+    }
+
+    private void markDirty(String body) {
+        if (ALL.equals(body)) {
+            allDirty.set(true);
+        } else if (!LIST.equals(body)) {
+            dirty.add(Long.valueOf(body));
+        }
+        // 先记录失效的分类，再标记快照过期，生成快照时按相反的顺序读取，不会漏掉变更
+        stale.set(true);
+    }
+
+    private Snapshot rebuild() {
+        stale.set(false);
+        if (allDirty.getAndSet(false)) {
+            dirty.clear();
+            fragments.clear();
+        }
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long categoryId = it.next();
+            it.remove();
+            fragments.remove(categoryId);
+        }
+
+        List<Category> categories = categoryMapper.list(null);
+        List<Long> categoryIds = new ArrayList<>(categories.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        out.write(PREFIX, 0, PREFIX.length);
+        for (int i = 0; i < categories.size(); i++) {
+            Category category = categories.get(i);
+            categoryIds.add(category.getId());
+
+            byte[] fragment = fragments.computeIfAbsent(category.getId(), id -> buildFragment(category));
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(fragment, 0, fragment.length);
+        }
+        out.write(SUFFIX, 0, SUFFIX.length);
+
+        // 清理已删除、已禁用分类的片段
+        fragments.keySet().retainAll(categoryIds);
+
+        byte[] body = out.toByteArray();
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        log.info("生成菜单快照：{} 个分类，{} 字节", categories.size(), body.length);
+        return new Snapshot(body, etag);
+    }
+
+    private byte[] buildFragment(Category category) {
+        MenuCategoryVO menuCategoryVO = MenuCategoryVO.builder()
+                .id(category.getId())
+                .type(category.getType())
+                .name(category.getName())
+                .sort(category.getSort())
+                .build();
+
+        if (Integer.valueOf(1).equals(category.getType())) {
+            Dish dish = Dish.builder().categoryId(category.getId()).status(StatusConstant.ENABLE).build();
+            menuCategoryVO.setDishes(dishService.listWithFlavor(dish));
+        } else {
+            Setmeal setmeal = Setmeal.builder().categoryId(category.getId()).status(StatusConstant.ENABLE).build();
+            menuCategoryVO.setSetmeals(setmealService.list(setmeal));
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(menuCategoryVO);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("菜单序列化失败", e);
+        }
+    }
+
+    /**
+     * 生成好的菜单快照
+     */
+    @Getter
+    public static class Snapshot {
+        private final byte[] body;//完整的响应内容
+        private final String etag;//响应内容的摘要
+
+        public Snapshot(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+}
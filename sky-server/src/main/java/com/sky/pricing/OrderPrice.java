@@ -0,0 +1,37 @@
+package com.sky.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * 订单计价结果，金额单位为分
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPrice {
+
+    //商品金额
+    private final long goodsCents;
+
+    //打包费
+    private final long packCents;
+
+    //配送费
+    private final long deliveryCents;
+
+    /**
+     * 订单总金额(元)
+     */
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(goodsCents + packCents + deliveryCents, 2);
+    }
+
+    /**
+     * 打包费(元)
+     */
+    public int getPackAmount() {
+        return (int) (packCents / 100);
+    }
+}
@@ -0,0 +1,63 @@
+package com.sky.pricing;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 起售中菜品、套餐价格的不可变快照，价格统一换算为分
+ */
+public class PriceSnapshot {
+
+    private final long version;
+    private final Map<Long, Price> dishPrices;
+    private final Map<Long, Price> setmealPrices;
+
+    public PriceSnapshot(long version, Map<Long, Price> dishPrices, Map<Long, Price> setmealPrices) {
+        this.version = version;
+        this.dishPrices = dishPrices;
+        this.setmealPrices = setmealPrices;
+    }
+
+    /**
+     * 快照的版本号，查询数据库越晚开始的快照版本号越大
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取菜品价格，菜品不存在或已停售时返回 null
+     */
+    public Price getDishPrice(Long dishId) {
+        return dishPrices.get(dishId);
+    }
+
+    /**
+     * 获取套餐价格，套餐不存在或已停售时返回 null
+     */
+    public Price getSetmealPrice(Long setmealId) {
+        return setmealPrices.get(setmealId);
+    }
+
+    /**
+     * 单价，同时保存分和元两种形式，计价时无需再创建 BigDecimal 对象
+     */
+    public static class Price {
+
+        private final long cents;
+        private final BigDecimal amount;
+
+        public Price(BigDecimal amount) {
+            this.amount = amount;
+            this.cents = amount.movePointRight(2).longValue();
+        }
+
+        public long getCents() {
+            return cents;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.sky.pricing;
+
+import com.sky.constant.MessageConstant;
+import com.sky.constant.StatusConstant;
+import com.sky.entity.Dish;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Setmeal;
+import com.sky.exception.OrderBusinessException;
+import com.sky.mapper.DishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.properties.PricingProperties;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 订单计价
+ * 根据内存中的价格快照重新计算订单金额，不信任客户端和购物车中的金额；
+ * 计价过程使用 long 类型的分进行运算，不访问数据库。
+ * 菜品、套餐修改后本实例刷新快照，并通过 redis 发布订阅通知其他实例刷新；定时任务定期刷新，作为漏收通知时的兜底
+ */
+@Component
+@Slf4j
+public class PricingEngine {
+
+    // 价格变更通知的频道
+    public static final String CHANGED_CHANNEL = "price_snapshot_changed";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private DishMapper dishMapper;
+    @Autowired
+    private SetmealMapper setmealMapper;
+    @Autowired
+    private PricingProperties pricingProperties;
+
+    private volatile PriceSnapshot snapshot;
+
+    // 每次查询数据库前加一，作为快照的版本号
+    private final AtomicLong versions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> reload(),
+                new ChannelTopic(CHANGED_CHANNEL));
+    }
+
+    /**
+     * 计算订单金额，并将每个订单明细的单价修正为当前售价
+     *
+     * @param orderDetailList 订单明细
+     * @return
+     */
+    public OrderPrice price(List<OrderDetail> orderDetailList) {
+        PriceSnapshot priceSnapshot = getSnapshot();
+
+        long goodsCents = 0;
+        long count = 0;
+        for (OrderDetail orderDetail : orderDetailList) {
+            PriceSnapshot.Price price = orderDetail.getDishId() != null
+                    ? priceSnapshot.getDishPrice(orderDetail.getDishId())
+                    : priceSnapshot.getSetmealPrice(orderDetail.getSetmealId());
+            if (price == null) {
+                // 商品已删除或已停售
+                throw new OrderBusinessException(MessageConstant.GOODS_NOT_ON_SALE);
+            }
+
+            // 套餐按套餐价计价，菜品按菜品价计价
+            orderDetail.setAmount(price.getAmount());
+            goodsCents += price.getCents() * orderDetail.getNumber();
+            count += orderDetail.getNumber();
+        }
+
+        long packCents = count * pricingProperties.getPackFee() * 100L;
+        long deliveryCents = pricingProperties.getDeliveryFee() * 100L;
+
+        return new OrderPrice(goodsCents, packCents, deliveryCents);
+    }
+
+    /**
+     * 菜品、套餐修改后刷新价格快照，并通知其他实例；存在事务时在事务提交后刷新
+     */
+    public void refresh() {
+        TransactionUtil.afterCommit(() -> {
+            reload();
+            stringRedisTemplate.convertAndSend(CHANGED_CHANNEL, "reload");
+        });
+    }
+
+    private PriceSnapshot getSnapshot() {
+        PriceSnapshot priceSnapshot = snapshot;
+        if (priceSnapshot == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                priceSnapshot = snapshot;
+            }
+        }
+        return priceSnapshot;
+    }
+
+    /**
+     * 查询所有起售中的菜品和套餐，重新构造价格快照
+     * 并发刷新时先开始的查询可能后完成，只用版本号更大的快照替换当前快照
+     */
+    public void reload() {
+        long version = versions.incrementAndGet();
+
+        Dish dish = new Dish();
+        dish.setStatus(StatusConstant.ENABLE);
+        List<Dish> dishList = dishMapper.list(dish);
+
+        Setmeal setmeal = new Setmeal();
+        setmeal.setStatus(StatusConstant.ENABLE);
+        List<Setmeal> setmealList = setmealMapper.list(setmeal);
+
+        Map<Long, PriceSnapshot.Price> dishPrices = new HashMap<>(dishList.size() * 2);
+        for (Dish d : dishList) {
+            dishPrices.put(d.getId(), new PriceSnapshot.Price(d.getPrice()));
+        }
+        Map<Long, PriceSnapshot.Price> setmealPrices = new HashMap<>(setmealList.size() * 2);
+        for (Setmeal s : setmealList) {
+            setmealPrices.put(s.getId(), new PriceSnapshot.Price(s.getPrice()));
+        }
+
+        synchronized (this) {
+            if (snapshot != null && snapshot.getVersion() > version) {
+                return;
+            }
+            snapshot = new PriceSnapshot(version, dishPrices, setmealPrices);
+        }
+        log.info("价格快照已刷新，菜品 {} 个，套餐 {} 个", dishPrices.size(), setmealPrices.size());
+    }
+}
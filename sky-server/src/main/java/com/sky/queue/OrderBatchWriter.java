@@ -0,0 +1,71 @@
+package com.sky.queue;
+
+import com.sky.counter.OrderStatusCounter;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderDetailMapper;
+import com.sky.mapper.OrderMapper;
+import com.sky.mapper.ShoppingCartMapper;
+import com.sky.report.DailyStatRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将一批订单在同一个事务中写入数据库
+ */
+@Component
+public class OrderBatchWriter {
+
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private OrderDetailMapper orderDetailMapper;
+    @Autowired
+    private ShoppingCartMapper shoppingCartMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private DailyStatRecorder dailyStatRecorder;
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+
+    /**
+     * 批量写入订单、订单明细，并清理对应的购物车数据
+     *
+     * @param batch
+     */
+    @Transactional
+    public void write(List<PendingOrder> batch) {
+        List<Orders> ordersList = new ArrayList<>(batch.size());
+        List<OrderDetail> orderDetailList = new ArrayList<>();
+        List<Long> shoppingCartIds = new ArrayList<>();
+
+        for (PendingOrder pendingOrder : batch) {
+            ordersList.add(pendingOrder.getOrders());
+            orderDetailList.addAll(pendingOrder.getOrderDetailList());
+            shoppingCartIds.addAll(pendingOrder.getShoppingCartIds());
+        }
+
+        // 一条语句插入多个订单
+        orderMapper.insertBatch(ordersList);
+        // 一条语句插入所有订单的明细
+        orderDetailMapper.insertBatch(orderDetailList);
+        // 只删除下单时读取到的购物车数据，避免误删受理之后新加入的商品
+        if (!shoppingCartIds.isEmpty()) {
+            shoppingCartMapper.deleteByIds(shoppingCartIds);
+        }
+
+        // 按下单日期累加每日订单数
+        dailyStatRecorder.ordersCreated(ordersList);
+        workspaceCounter.ordersCreated(ordersList);
+
+        for (Orders orders : ordersList) {
+            orderStatusCounter.increment(orders.getStatus());
+        }
+    }
+}
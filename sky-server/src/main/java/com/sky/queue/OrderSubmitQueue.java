@@ -0,0 +1,146 @@
+package com.sky.queue;
+
+import com.sky.properties.OrderSubmitProperties;
+import com.sky.vo.OrderSubmitQueueVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 下单队列
+ * 后台线程从有界队列中批量取出订单，在一个事务中写入数据库 (组提交)，批次提交后下单请求才返回订单号，
+ * 订单不会因为实例宕机而丢失，返回后即可查询；队列满时拒绝下单，起到削峰和背压的作用
+ */
+@Component
+@Slf4j
+public class OrderSubmitQueue {
+
+    @Autowired
+    private OrderSubmitProperties orderSubmitProperties;
+    @Autowired
+    private OrderBatchWriter orderBatchWriter;
+
+    private BlockingQueue<PendingOrder> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    // 运行指标
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(orderSubmitProperties.getQueueCapacity());
+        running = true;
+        writerThread = new Thread(this::consume, "order-submit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 应用关闭时，先停止后台线程，再将队列中剩余的订单全部写入数据库
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<PendingOrder> batch = new ArrayList<>();
+        while (queue.drainTo(batch, orderSubmitProperties.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 放入队列，通过 PendingOrder.getWritten() 等待写入结果
+     *
+     * @param pendingOrder
+     * @return 队列已满时返回 false
+     */
+    public boolean offer(PendingOrder pendingOrder) {
+        if (!running || !queue.offer(pendingOrder)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 获取队列运行指标
+     *
+     * @return
+     */
+    public OrderSubmitQueueVO metrics() {
+        return OrderSubmitQueueVO.builder()
+                .capacity(orderSubmitProperties.getQueueCapacity())
+                .size(queue.size())
+                .accepted(accepted.get())
+                .rejected(rejected.get())
+                .persisted(persisted.get())
+                .failed(failed.get())
+                .batches(batches.get())
+                .build();
+    }
+
+    private void consume() {
+        List<PendingOrder> batch = new ArrayList<>(orderSubmitProperties.getBatchSize());
+        while (running) {
+            try {
+                // 阻塞等待第一个订单，再尽量凑满一批
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, orderSubmitProperties.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingOrder> batch) {
+        batches.incrementAndGet();
+        try {
+            orderBatchWriter.write(batch);
+            persisted.addAndGet(batch.size());
+            batch.forEach(pendingOrder -> pendingOrder.getWritten().complete(null));
+        } catch (Exception e) {
+            // 整批写入失败时逐个重试，避免一个异常订单影响同批的其他订单
+            log.error("批量写入订单失败，逐个重试：{}", e.getMessage());
+            for (PendingOrder pendingOrder : batch) {
+                try {
+                    orderBatchWriter.write(Collections.singletonList(pendingOrder));
+                    persisted.incrementAndGet();
+                    pendingOrder.getWritten().complete(null);
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                    log.error("写入订单失败：{}", pendingOrder.getOrders(), ex);
+                    pendingOrder.getWritten().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+}
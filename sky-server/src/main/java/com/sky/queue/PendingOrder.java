@@ -0,0 +1,29 @@
+package com.sky.queue;
+
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 等待写入数据库的订单
+ */
+@Data
+@AllArgsConstructor
+public class PendingOrder {
+
+    //订单
+    private Orders orders;
+
+    //订单明细
+    private List<OrderDetail> orderDetailList;
+
+    //下单时读取到的购物车id，写入订单后删除
+    private List<Long> shoppingCartIds;
+
+    //写入结果，所在的批次提交后完成，写入失败时异常完成
+    private final CompletableFuture<Void> written = new CompletableFuture<>();
+}
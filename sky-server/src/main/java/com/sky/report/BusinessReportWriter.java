@@ -0,0 +1,159 @@
+package com.sky.report;
+
+import com.sky.entity.DailyStat;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 运营数据报表，包含概览和每日明细两个工作表
+ * 使用 SXSSF 流式写入，每个工作表在内存中最多保留 WINDOW_SIZE 行，更早的行写入磁盘临时文件；
+ * 作为 MyBatis 的 ResultHandler 逐行接收游标查询到的每日汇总数据，内存占用与导出的天数无关
+ */
+public class BusinessReportWriter implements ResultHandler<DailyStat>, Closeable {
+
+    // 内存中保留的行数
+    private static final int WINDOW_SIZE = 100;
+
+    private static final String[] DETAIL_HEADERS = {"日期", "营业额", "订单数", "有效订单数", "订单完成率", "平均客单价", "新增用户数"};
+
+    private final LocalDate begin;
+    private final LocalDate end;
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet summarySheet;
+    private final Sheet detailSheet;
+    private final CellStyle moneyStyle;
+    private final CellStyle percentStyle;
+
+    // 下一行明细的日期，没有数据的日期补 0
+    private LocalDate nextDate;
+    private int detailRowNum = 0;
+
+    // 整个日期范围的合计
+    private BigDecimal turnover = BigDecimal.ZERO;
+    private long orderCount = 0;
+    private long validOrderCount = 0;
+    private long newUserCount = 0;
+
+    public BusinessReportWriter(LocalDate begin, LocalDate end) {
+        this.begin = begin;
+        this.end = end;
+        this.nextDate = begin;
+
+        workbook = new SXSSFWorkbook(WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        summarySheet = workbook.createSheet("概览");
+        detailSheet = workbook.createSheet("每日明细");
+
+        // 样式在整个工作簿中共享，只创建一次
+        moneyStyle = workbook.createCellStyle();
+        moneyStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+        percentStyle = workbook.createCellStyle();
+        percentStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00%"));
+
+        Row header = detailSheet.createRow(detailRowNum++);
+        for (int i = 0; i < DETAIL_HEADERS.length; i++) {
+            header.createCell(i).setCellValue(DETAIL_HEADERS[i]);
+        }
+    }
+
+    /**
+     * 接收游标查询到的一天的数据，数据需要按日期升序
+     *
+     * @param resultContext
+     */
+    @Override
+    public void handleResult(ResultContext<? extends DailyStat> resultContext) {
+        DailyStat dailyStat = resultContext.getResultObject();
+        fillTo(dailyStat.getStatDate());
+        writeDetail(dailyStat);
+    }
+
+    /**
+     * 补齐剩余日期的明细，写入概览，并将整个工作簿输出
+     *
+     * @param out 输出流
+     * @throws IOException
+     */
+    public void finish(OutputStream out) throws IOException {
+        fillTo(end.plusDays(1));
+        writeSummary();
+        workbook.write(out);
+        out.flush();
+    }
+
+    /**
+     * 删除磁盘上的临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    /**
+     * 为 date 之前没有数据的日期写入 0
+     */
+    private void fillTo(LocalDate date) {
+        while (nextDate.isBefore(date)) {
+            writeDetail(DailyStat.builder()
+                    .statDate(nextDate)
+                    .orderCount(0)
+                    .validOrderCount(0)
+                    .turnover(BigDecimal.ZERO)
+                    .newUserCount(0)
+                    .build());
+        }
+    }
+
+    private void writeDetail(DailyStat dailyStat) {
+        Row row = detailSheet.createRow(detailRowNum++);
+        row.createCell(0).setCellValue(dailyStat.getStatDate().toString());
+        writeValues(row, 1, dailyStat.getTurnover(), dailyStat.getOrderCount(),
+                dailyStat.getValidOrderCount(), dailyStat.getNewUserCount());
+
+        turnover = turnover.add(dailyStat.getTurnover());
+        orderCount += dailyStat.getOrderCount();
+        validOrderCount += dailyStat.getValidOrderCount();
+        newUserCount += dailyStat.getNewUserCount();
+        nextDate = dailyStat.getStatDate().plusDays(1);
+    }
+
+    private void writeSummary() {
+        summarySheet.createRow(0).createCell(0).setCellValue("运营数据报表");
+        summarySheet.createRow(1).createCell(0).setCellValue("时间：" + begin + " 至 " + end);
+
+        Row header = summarySheet.createRow(3);
+        for (int i = 1; i < DETAIL_HEADERS.length; i++) {
+            header.createCell(i - 1).setCellValue(DETAIL_HEADERS[i]);
+        }
+        writeValues(summarySheet.createRow(4), 0, turnover, orderCount, validOrderCount, newUserCount);
+    }
+
+    /**
+     * 从 column 列开始依次写入：营业额、订单数、有效订单数、订单完成率、平均客单价、新增用户数
+     */
+    private void writeValues(Row row, int column, BigDecimal turnover, long orderCount, long validOrderCount, long newUserCount) {
+        double turnoverValue = turnover.doubleValue();
+
+        row.createCell(column).setCellValue(turnoverValue);
+        row.getCell(column).setCellStyle(moneyStyle);
+        row.createCell(column + 1).setCellValue(orderCount);
+        row.createCell(column + 2).setCellValue(validOrderCount);
+        row.createCell(column + 3).setCellValue(orderCount == 0 ? 0.0 : (double) validOrderCount / orderCount);
+        row.getCell(column + 3).setCellStyle(percentStyle);
+        row.createCell(column + 4).setCellValue(validOrderCount == 0 ? 0.0 : turnoverValue / validOrderCount);
+        row.getCell(column + 4).setCellStyle(moneyStyle);
+        row.createCell(column + 5).setCellValue(newUserCount);
+    }
+}
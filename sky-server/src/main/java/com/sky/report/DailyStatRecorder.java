@@ -0,0 +1,98 @@
+package com.sky.report;
+
+import com.sky.entity.DailyStat;
+import com.sky.entity.Orders;
+import com.sky.entity.User;
+import com.sky.mapper.DailyStatMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 每日汇总数据的增量维护
+ * 下单、订单完成、新用户注册时按日期累加到 daily_stat，与业务数据在同一事务中写入；
+ * 同一批数据按日期合并为一条语句，并按日期顺序加锁，避免并发更新时死锁
+ */
+@Component
+public class DailyStatRecorder {
+
+    @Autowired
+    private DailyStatMapper dailyStatMapper;
+    @Autowired
+    private SalesRanking salesRanking;
+
+    /**
+     * 新增订单
+     *
+     * @param ordersList 新订单，需要包含下单时间
+     */
+    public void ordersCreated(List<Orders> ordersList) {
+        Map<LocalDate, DailyStat> deltas = new TreeMap<>();
+        for (Orders orders : ordersList) {
+            DailyStat delta = deltas.computeIfAbsent(orders.getOrderTime().toLocalDate(), this::emptyStat);
+            delta.setOrderCount(delta.getOrderCount() + 1);
+        }
+        add(deltas);
+    }
+
+    /**
+     * 订单完成，计入有效订单数、营业额和商品销量排行
+     *
+     * @param ordersList 完成的订单，需要包含下单时间和金额
+     */
+    public void ordersCompleted(List<Orders> ordersList) {
+        Map<LocalDate, DailyStat> deltas = new TreeMap<>();
+        for (Orders orders : ordersList) {
+            DailyStat delta = deltas.computeIfAbsent(orders.getOrderTime().toLocalDate(), this::emptyStat);
+            delta.setValidOrderCount(delta.getValidOrderCount() + 1);
+            if (orders.getAmount() != null) {
+                delta.setTurnover(delta.getTurnover().add(orders.getAmount()));
+            }
+        }
+        add(deltas);
+        salesRanking.ordersCompleted(ordersList);
+    }
+
+    /**
+     * 订单完成
+     *
+     * @param orders 完成的订单，需要包含下单时间和金额
+     */
+    public void orderCompleted(Orders orders) {
+        ordersCompleted(Collections.singletonList(orders));
+    }
+
+    /**
+     * 新用户注册
+     *
+     * @param user 新用户，需要包含注册时间
+     */
+    public void userCreated(User user) {
+        DailyStat delta = emptyStat(user.getCreateTime().toLocalDate());
+        delta.setNewUserCount(1);
+        dailyStatMapper.add(Collections.singletonList(delta));
+    }
+
+    private void add(Map<LocalDate, DailyStat> deltas) {
+        if (!deltas.isEmpty()) {
+            dailyStatMapper.add(new ArrayList<>(deltas.values()));
+        }
+    }
+
+    private DailyStat emptyStat(LocalDate date) {
+        return DailyStat.builder()
+                .statDate(date)
+                .orderCount(0)
+                .validOrderCount(0)
+                .turnover(BigDecimal.ZERO)
+                .newUserCount(0)
+                .build();
+    }
+}
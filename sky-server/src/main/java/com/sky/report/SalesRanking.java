@@ -0,0 +1,201 @@
+package com.sky.report;
+
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.OrderDetail;
+import com.sky.entity.Orders;
+import com.sky.mapper.DailyStatMapper;
+import com.sky.mapper.OrderDetailMapper;
+import com.sky.properties.SalesRankingProperties;
+import com.sky.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 商品销量排行
+ * 每天一份 Space-Saving 统计，保存在 redis 中：sales_top_日期 (zset, 商品名称 -> 计数)，sales_top_error_日期 (hash, 商品名称 -> 误差)；
+ * 订单完成时由 lua 脚本原子地累加，任意日期范围的排行读取每天的统计后在内存中合并，不再聚合订单明细表
+ */
+@Component
+@Slf4j
+public class SalesRanking {
+
+    // 每日计数的 key 前缀
+    public static final String COUNT_KEY = "sales_top_";
+    // 每日误差的 key 前缀
+    public static final String ERROR_KEY = "sales_top_error_";
+
+    // KEYS[1] 计数，KEYS[2] 误差；ARGV[1] 容量，ARGV[2] 过期时间(秒)，之后为 商品名称、销量 成对出现
+    private static final String OFFER_SCRIPT =
+            "local capacity = tonumber(ARGV[1]) " +
+            "for i = 3, #ARGV, 2 do " +
+            "  local name = ARGV[i] " +
+            "  local number = tonumber(ARGV[i + 1]) " +
+            "  if redis.call('ZSCORE', KEYS[1], name) or redis.call('ZCARD', KEYS[1]) < capacity then " +
+            "    redis.call('ZINCRBY', KEYS[1], number, name) " +
+            "  else " +
+            "    local min = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') " +
+            "    redis.call('ZREM', KEYS[1], min[1]) " +
+            "    redis.call('HDEL', KEYS[2], min[1]) " +
+            "    redis.call('ZADD', KEYS[1], tonumber(min[2]) + number, name) " +
+            "    redis.call('HSET', KEYS[2], name, min[2]) " +
+            "  end " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return redis.call('ZCARD', KEYS[1])";
+
+    // KEYS[1] 计数，KEYS[2] 误差；ARGV[1] 过期时间(秒)，之后为 商品名称、销量 成对出现
+    private static final String REPLACE_SCRIPT =
+            "redis.call('DEL', KEYS[1], KEYS[2]) " +
+            "for i = 2, #ARGV, 2 do " +
+            "  redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i]) " +
+            "end " +
+            "if #ARGV > 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+            "return redis.call('ZCARD', KEYS[1])";
+
+    private static final DefaultRedisScript<Long> OFFER = new DefaultRedisScript<>(OFFER_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> REPLACE = new DefaultRedisScript<>(REPLACE_SCRIPT, Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private OrderDetailMapper orderDetailMapper;
+    @Autowired
+    private DailyStatMapper dailyStatMapper;
+    @Autowired
+    private SalesRankingProperties salesRankingProperties;
+
+    /**
+     * 订单完成，按下单日期累加订单中各商品的销量
+     * 订单明细在当前事务中查询，事务提交后再写入 redis
+     *
+     * @param ordersList 完成的订单，需要包含下单时间
+     */
+    public void ordersCompleted(List<Orders> ordersList) {
+        if (ordersList.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDate> orderDates = ordersList.stream()
+                .collect(Collectors.toMap(Orders::getId, o -> o.getOrderTime().toLocalDate(), (a, b) -> a));
+
+        // key: 下单日期, value: 商品名称 -> 销量
+        Map<LocalDate, Map<String, Long>> sales = new TreeMap<>();
+        for (OrderDetail orderDetail : orderDetailMapper.getByOrderIds(new ArrayList<>(orderDates.keySet()))) {
+            sales.computeIfAbsent(orderDates.get(orderDetail.getOrderId()), k -> new HashMap<>())
+                    .merge(orderDetail.getName(), (long) orderDetail.getNumber(), Long::sum);
+        }
+
+        TransactionUtil.afterCommit(() -> sales.forEach(this::offer));
+    }
+
+    /**
+     * 查询日期范围内的销量排行，一次管道读取每天的统计，合并后取前 n 个
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @param n     数量
+     * @return 按销量倒序
+     */
+    public List<GoodsSalesDTO> top(LocalDate begin, LocalDate end, int n) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = begin; !date.isAfter(end); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (LocalDate date : dates) {
+                connection.zSetCommands().zRangeWithScores(bytes(COUNT_KEY + date), 0, -1);
+                connection.hashCommands().hGetAll(bytes(ERROR_KEY + date));
+            }
+            return null;
+        });
+
+        List<SpaceSaving> summaries = new ArrayList<>(dates.size());
+        for (int i = 0; i < results.size(); i += 2) {
+            summaries.add(toSummary(results.get(i), results.get(i + 1)));
+        }
+        return SpaceSaving.merge(summaries).top(n);
+    }
+
+    /**
+     * 从订单明细精确统计某一天的销量排行，覆盖 redis 中的统计
+     * 订单明细在当前事务中统计，事务提交后由 lua 脚本一次完成删除旧统计、写入新统计，读取排行时不会看到空的或写了一半的统计
+     *
+     * @param date 日期
+     */
+    public void rebuild(LocalDate date) {
+        List<GoodsSalesDTO> list = dailyStatMapper.getSalesTop(date.atStartOfDay(), date.plusDays(1).atStartOfDay(),
+                salesRankingProperties.getCapacity());
+
+        List<String> args = new ArrayList<>(1 + list.size() * 2);
+        args.add(String.valueOf(TimeUnit.DAYS.toSeconds(salesRankingProperties.getRetentionDays())));
+        for (GoodsSalesDTO goodsSalesDTO : list) {
+            args.add(goodsSalesDTO.getName());
+            args.add(String.valueOf(goodsSalesDTO.getNumber()));
+        }
+
+        TransactionUtil.afterCommit(() -> {
+            try {
+                stringRedisTemplate.execute(REPLACE, Arrays.asList(COUNT_KEY + date, ERROR_KEY + date), args.toArray());
+            } catch (Exception e) {
+                log.warn("覆盖 {} 的商品销量排行失败，等待下一次重新汇总", date, e);
+            }
+        });
+    }
+
+    /**
+     * 将一天的销量写入 redis，redis 不可用时只记录日志，由每晚的重新汇总修正
+     *
+     * @param date  下单日期
+     * @param sales 商品名称 -> 销量
+     */
+    private void offer(LocalDate date, Map<String, Long> sales) {
+        List<String> args = new ArrayList<>(2 + sales.size() * 2);
+        args.add(String.valueOf(salesRankingProperties.getCapacity()));
+        args.add(String.valueOf(TimeUnit.DAYS.toSeconds(salesRankingProperties.getRetentionDays())));
+        sales.forEach((name, number) -> {
+            args.add(name);
+            args.add(String.valueOf(number));
+        });
+
+        try {
+            stringRedisTemplate.execute(OFFER, Arrays.asList(COUNT_KEY + date, ERROR_KEY + date), args.toArray());
+        } catch (Exception e) {
+            log.warn("记录 {} 的商品销量失败：{}", date, sales, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpaceSaving toSummary(Object counts, Object errors) {
+        SpaceSaving summary = new SpaceSaving(salesRankingProperties.getCapacity());
+        Map<String, String> errorMap = errors instanceof Map ? (Map<String, String>) errors : new HashMap<>();
+        if (counts instanceof Set) {
+            for (ZSetOperations.TypedTuple<String> tuple : (Set<ZSetOperations.TypedTuple<String>>) counts) {
+                String error = errorMap.get(tuple.getValue());
+                summary.put(tuple.getValue(), tuple.getScore().longValue(), error == null ? 0 : Long.parseLong(error));
+            }
+        }
+        return summary;
+    }
+
+    private byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sky.report;
+
+import com.sky.dto.GoodsSalesDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 热点统计结果
+ * 每天最多记录 capacity 个商品，新商品在记录已满时替换计数最小的商品，并继承其计数作为误差，由 redis 脚本原子地维护（见 SalesRanking）；
+ * 每个商品的计数不小于真实销量，计数减去误差不大于真实销量
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+
+    // key: 商品名称, value: [计数, 误差]
+    private final Map<String, long[]> counters = new HashMap<>();
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * 直接设置商品的计数和误差，用于从 redis 还原
+     *
+     * @param name  商品名称
+     * @param count 计数
+     * @param error 误差
+     */
+    public void put(String name, long count, long error) {
+        counters.put(name, new long[]{count, error});
+    }
+
+    /**
+     * 未记录的商品销量上限：记录已满时为最小计数，未满时所有商品都已记录，为 0
+     *
+     * @return
+     */
+    public long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(c -> c[0]).min().orElse(0);
+    }
+
+    /**
+     * 合并多天的统计结果
+     * 某天没有记录的商品，按当天的未记录销量上限累加计数和误差，合并后计数仍不小于真实销量
+     *
+     * @param summaries 每天的统计结果
+     * @return 合并后的结果，保留所有出现过的商品
+     */
+    public static SpaceSaving merge(List<SpaceSaving> summaries) {
+        long minSum = 0;
+        for (SpaceSaving summary : summaries) {
+            minSum += summary.minCount();
+        }
+
+        Map<String, long[]> merged = new HashMap<>();
+        for (SpaceSaving summary : summaries) {
+            long min = summary.minCount();
+            for (Map.Entry<String, long[]> entry : summary.counters.entrySet()) {
+                long[] counter = merged.computeIfAbsent(entry.getKey(), k -> new long[2]);
+                counter[0] += entry.getValue()[0] - min;
+                counter[1] += entry.getValue()[1] - min;
+            }
+        }
+
+        SpaceSaving result = new SpaceSaving(Integer.MAX_VALUE);
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            result.put(entry.getKey(), entry.getValue()[0] + minSum, entry.getValue()[1] + minSum);
+        }
+        return result;
+    }
+
+    /**
+     * 按计数倒序取前 n 个商品
+     *
+     * @param n 数量
+     * @return
+     */
+    public List<GoodsSalesDTO> top(int n) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        List<GoodsSalesDTO> list = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(n, entries.size()))) {
+            list.add(new GoodsSalesDTO(entry.getKey(), (int) entry.getValue()[0]));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,513 @@
+package com.sky.serializer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidClassException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * redis value 的紧凑二进制序列化器
+ * 常用类型（数字、字符串、金额、时间、集合）使用带类型标记的变长编码；
+ * 项目中的实体类按字段编码，类名和字段名在每个 value 中只写一次，同一个类的多个对象只写字段值；
+ * 序列化结果超过阈值时使用 Deflate 压缩；其余类型以及历史数据仍使用 JDK 序列化。
+ * 数据中的类在当前版本中已被删除、改名或字段类型不兼容时 (滚动发布期间旧版本写入的数据)，返回 null，按缓存未命中重新加载
+ */
+@Slf4j
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    // 格式标记，与 JDK 序列化的首字节 0xAC 不同，可以兼容 redis 中已有的 JDK 序列化数据
+    private static final byte FORMAT_PLAIN = 1;
+    private static final byte FORMAT_DEFLATE = 2;
+    private static final byte JDK_MAGIC = (byte) 0xAC;
+
+    // 只有这个包下的类才会按字段编码、解码，避免反序列化时实例化任意类
+    private static final String BEAN_PACKAGE = "com.sky.";
+
+    // 类型标记
+    private static final int NULL = 0;
+    private static final int TRUE = 1;
+    private static final int FALSE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int DOUBLE = 5;
+    private static final int STRING = 6;
+    private static final int BIG_DECIMAL = 7;
+    private static final int LOCAL_DATE_TIME = 8;
+    private static final int LOCAL_DATE = 9;
+    private static final int LIST = 10;
+    private static final int SET = 11;
+    private static final int MAP = 12;
+    private static final int BEAN_DEFINE = 13; //第一次出现的类：类名、字段名、字段值
+    private static final int BEAN = 14; //已出现过的类：类编号、字段值
+    private static final int JDK = 15;
+
+    // 类名 -> 按字段名排序的字段
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    // 序列化结果超过该字节数时压缩，小于等于 0 表示不压缩
+    private final int compressThreshold;
+
+    public CompactRedisSerializer(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        Writer writer = new Writer();
+        writer.buf.write(FORMAT_PLAIN);
+        writer.writeValue(value);
+        byte[] bytes = writer.buf.toByteArray();
+
+        if (compressThreshold <= 0 || bytes.length <= compressThreshold) {
+            return bytes;
+        }
+        return compress(bytes);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            switch (bytes[0]) {
+                case FORMAT_PLAIN:
+                    return new Reader(bytes, 1).readValue();
+                case FORMAT_DEFLATE:
+                    byte[] plain = decompress(bytes);
+                    return new Reader(plain, 0).readValue();
+                case JDK_MAGIC:
+                    return deserializeJdk(bytes);
+                default:
+                    throw new SerializationException("无法识别的序列化格式: " + bytes[0]);
+            }
+        } catch (IncompatibleClassException e) {
+            log.info("缓存数据与当前版本不兼容，按未命中处理：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * JDK 反序列化，类不存在或 serialVersionUID 不一致时抛出 IncompatibleClassException
+     */
+    private Object deserializeJdk(byte[] bytes) {
+        try {
+            return jdkSerializer.deserialize(bytes);
+        } catch (SerializationException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ClassNotFoundException || cause instanceof InvalidClassException) {
+                    throw new IncompatibleClassException(cause.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 压缩后的格式：FORMAT_DEFLATE、原始长度、压缩数据，压缩后没有变小时返回原数据
+     */
+    private byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, 1, bytes.length - 1);
+            deflater.finish();
+
+            Writer writer = new Writer();
+            writer.buf.write(FORMAT_DEFLATE);
+            writer.writeVarInt(bytes.length - 1);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                writer.buf.write(chunk, 0, n);
+            }
+
+            byte[] compressed = writer.buf.toByteArray();
+            return compressed.length < bytes.length ? compressed : bytes;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] bytes) {
+        Reader reader = new Reader(bytes, 1);
+        int length = reader.readVarInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, reader.pos, bytes.length - reader.pos);
+            byte[] plain = new byte[length];
+            int n = 0;
+            while (n < length) {
+                int read = inflater.inflate(plain, n, length - n);
+                // 数据被截断或损坏时没有更多输入可以解压，不会再有进展
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("压缩数据不完整，已解压 " + n + " 字节，应为 " + length + " 字节");
+                }
+                n += read;
+            }
+            return plain;
+        } catch (DataFormatException e) {
+            throw new SerializationException("解压缩失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 获取类的所有实例字段（包括父类），按字段名排序
+     */
+    private static Field[] fieldsOf(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, c -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> k = c; k != null && k != Object.class; k = k.getSuperclass()) {
+                for (Field field : k.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            fields.sort(Comparator.comparing(Field::getName));
+            return fields.toArray(new Field[0]);
+        });
+    }
+
+    /**
+     * 项目中带无参构造方法的类按字段编码
+     */
+    private static boolean isBean(Class<?> clazz) {
+        if (!clazz.getName().startsWith(BEAN_PACKAGE) || clazz.isEnum() || clazz.isArray()) {
+            return false;
+        }
+        try {
+            clazz.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private class Writer {
+
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream(256);
+
+        // 当前 value 中已写出的类 -> 类编号
+        private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+        void writeValue(Object value) {
+            if (value == null) {
+                buf.write(NULL);
+            } else if (value instanceof Boolean) {
+                buf.write((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                buf.write(INT);
+                writeVarLong(zigZag((Integer) value));
+            } else if (value instanceof Long) {
+                buf.write(LONG);
+                writeVarLong(zigZag((Long) value));
+            } else if (value instanceof Double) {
+                buf.write(DOUBLE);
+                writeFixedLong(Double.doubleToLongBits((Double) value));
+            } else if (value instanceof String) {
+                buf.write(STRING);
+                writeString((String) value);
+            } else if (value instanceof BigDecimal) {
+                BigDecimal decimal = (BigDecimal) value;
+                buf.write(BIG_DECIMAL);
+                writeVarLong(zigZag(decimal.scale()));
+                writeBytes(decimal.unscaledValue().toByteArray());
+            } else if (value instanceof LocalDateTime) {
+                LocalDateTime time = (LocalDateTime) value;
+                buf.write(LOCAL_DATE_TIME);
+                writeVarLong(zigZag(time.toEpochSecond(ZoneOffset.UTC)));
+                writeVarInt(time.getNano());
+            } else if (value instanceof LocalDate) {
+                buf.write(LOCAL_DATE);
+                writeVarLong(zigZag(((LocalDate) value).toEpochDay()));
+            } else if (value instanceof List || value instanceof Set) {
+                Collection<?> collection = (Collection<?>) value;
+                buf.write(value instanceof List ? LIST : SET);
+                writeVarInt(collection.size());
+                for (Object element : collection) {
+                    writeValue(element);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                buf.write(MAP);
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else if (isBean(value.getClass())) {
+                writeBean(value);
+            } else {
+                buf.write(JDK);
+                writeBytes(jdkSerializer.serialize(value));
+            }
+        }
+
+        void writeBean(Object bean) {
+            Class<?> clazz = bean.getClass();
+            Field[] fields = fieldsOf(clazz);
+
+            Integer index = classes.get(clazz);
+            if (index == null) {
+                // 第一次出现的类写出类名和字段名，读取方按字段名匹配，字段增减后仍能读取旧数据
+                classes.put(clazz, classes.size());
+                buf.write(BEAN_DEFINE);
+                writeString(clazz.getName());
+                writeVarInt(fields.length);
+                for (Field field : fields) {
+                    writeString(field.getName());
+                }
+            } else {
+                buf.write(BEAN);
+                writeVarInt(index);
+            }
+
+            try {
+                for (Field field : fields) {
+                    writeValue(field.get(bean));
+                }
+            } catch (IllegalAccessException e) {
+                throw new SerializationException("序列化失败: " + clazz.getName(), e);
+            }
+        }
+
+        void writeString(String value) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            buf.write(bytes, 0, bytes.length);
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buf.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buf.write((int) value);
+        }
+
+        void writeFixedLong(long value) {
+            for (int i = 56; i >= 0; i -= 8) {
+                buf.write((int) (value >>> i));
+            }
+        }
+
+        long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    /**
+     * 数据中的类与当前版本不兼容
+     */
+    private static class IncompatibleClassException extends RuntimeException {
+        private IncompatibleClassException(String message) {
+            super(message);
+        }
+    }
+
+    private static class ClassDefine {
+        private final Constructor<?> constructor;
+        // 按写出顺序排列的字段，当前类中不存在的字段为 null，读取后丢弃
+        private final Field[] fields;
+
+        private ClassDefine(Constructor<?> constructor, Field[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+    }
+
+    private class Reader {
+
+        private final byte[] bytes;
+        private int pos;
+
+        // 当前 value 中已读取的类定义，下标即类编号
+        private final List<ClassDefine> classes = new ArrayList<>();
+
+        Reader(byte[] bytes, int pos) {
+            this.bytes = bytes;
+            this.pos = pos;
+        }
+
+        Object readValue() {
+            int tag = bytes[pos++];
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case INT:
+                    return (int) unZigZag(readVarLong());
+                case LONG:
+                    return unZigZag(readVarLong());
+                case DOUBLE:
+                    return Double.longBitsToDouble(readFixedLong());
+                case STRING:
+                    return readString();
+                case BIG_DECIMAL:
+                    int scale = (int) unZigZag(readVarLong());
+                    return new BigDecimal(new BigInteger(readBytes()), scale);
+                case LOCAL_DATE_TIME:
+                    long seconds = unZigZag(readVarLong());
+                    return LocalDateTime.ofEpochSecond(seconds, readVarInt(), ZoneOffset.UTC);
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(unZigZag(readVarLong()));
+                case LIST:
+                case SET:
+                    int size = readVarInt();
+                    Collection<Object> collection = tag == LIST ? new ArrayList<>(size) : new LinkedHashSet<>();
+                    for (int i = 0; i < size; i++) {
+                        collection.add(readValue());
+                    }
+                    return collection;
+                case MAP:
+                    int entries = readVarInt();
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < entries; i++) {
+                        map.put(readValue(), readValue());
+                    }
+                    return map;
+                case BEAN_DEFINE:
+                    classes.add(readClassDefine());
+                    return readBean(classes.get(classes.size() - 1));
+                case BEAN:
+                    return readBean(classes.get(readVarInt()));
+                case JDK:
+                    return deserializeJdk(readBytes());
+                default:
+                    throw new SerializationException("无法识别的类型标记: " + tag);
+            }
+        }
+
+        ClassDefine readClassDefine() {
+            String className = readString();
+            if (!className.startsWith(BEAN_PACKAGE)) {
+                throw new SerializationException("不允许反序列化的类: " + className);
+            }
+
+            try {
+                Class<?> clazz = Class.forName(className);
+                Map<String, Field> fieldMap = new HashMap<>();
+                for (Field field : fieldsOf(clazz)) {
+                    fieldMap.put(field.getName(), field);
+                }
+
+                Field[] fields = new Field[readVarInt()];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fieldMap.get(readString());
+                }
+
+                Constructor<?> constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return new ClassDefine(constructor, fields);
+            } catch (ReflectiveOperationException e) {
+                // 类已被删除、改名，或者不再有无参构造方法
+                throw new IncompatibleClassException(className + ": " + e);
+            }
+        }
+
+        Object readBean(ClassDefine define) {
+            try {
+                Object bean = define.constructor.newInstance();
+                for (Field field : define.fields) {
+                    Object value = readValue();
+                    if (field != null) {
+                        field.set(bean, value);
+                    }
+                }
+                return bean;
+            } catch (IllegalArgumentException e) {
+                // 字段类型已修改，旧数据无法赋值
+                throw new IncompatibleClassException(define.constructor.getName() + ": " + e.getMessage());
+            } catch (ReflectiveOperationException e) {
+                throw new SerializationException("反序列化失败: " + define.constructor.getName(), e);
+            }
+        }
+
+        String readString() {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, pos, value, 0, length);
+            pos += length;
+            return value;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.sky.service;
 
 import com.sky.dto.*;
 import com.sky.result.PageResult;
+import com.sky.vo.OrderBatchResultVO;
 import com.sky.vo.OrderStatisticsVO;
 import com.sky.vo.OrderSubmitVO;
 import com.sky.vo.OrderVO;
@@ -71,4 +72,39 @@ public interface OrderService {
      * @param id 订单id
      */
     void complete(Long id);
+
+    /**
+     * 批量接单
+     * @param ordersBatchDTO
+     * @return
+     */
+    OrderBatchResultVO confirmBatch(OrdersBatchDTO ordersBatchDTO);
+
+    /**
+     * 批量拒单
+     * @param ordersBatchDTO
+     * @return
+     */
+    OrderBatchResultVO rejectionBatch(OrdersBatchDTO ordersBatchDTO);
+
+    /**
+     * A端批量取消订单
+     * @param ordersBatchDTO
+     * @return
+     */
+    OrderBatchResultVO cancelBatchByAdmin(OrdersBatchDTO ordersBatchDTO);
+
+    /**
+     * 批量派送订单
+     * @param ordersBatchDTO
+     * @return
+     */
+    OrderBatchResultVO deliveryBatch(OrdersBatchDTO ordersBatchDTO);
+
+    /**
+     * 批量完成订单
+     * @param ordersBatchDTO
+     * @return
+     */
+    OrderBatchResultVO completeBatch(OrdersBatchDTO ordersBatchDTO);
 }
@@ -0,0 +1,61 @@
+package com.sky.service;
+
+import com.sky.vo.OrderReportVO;
+import com.sky.vo.SalesTop10ReportVO;
+import com.sky.vo.TurnoverReportVO;
+import com.sky.vo.UserReportVO;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+
+public interface ReportService {
+
+    /**
+     * 营业额统计
+     * @param begin 开始日期
+     * @param end 结束日期
+     * @return
+     */
+    TurnoverReportVO getTurnoverStatistics(LocalDate begin, LocalDate end);
+
+    /**
+     * 用户统计
+     * @param begin 开始日期
+     * @param end 结束日期
+     * @return
+     */
+    UserReportVO getUserStatistics(LocalDate begin, LocalDate end);
+
+    /**
+     * 订单统计
+     * @param begin 开始日期
+     * @param end 结束日期
+     * @return
+     */
+    OrderReportVO getOrderStatistics(LocalDate begin, LocalDate end);
+
+    /**
+     * 销量排名前 10 的商品
+     * @param begin 开始日期
+     * @param end 结束日期
+     * @return
+     */
+    SalesTop10ReportVO getSalesTop10(LocalDate begin, LocalDate end);
+
+    /**
+     * 导出运营数据报表
+     * @param begin 开始日期，为空时导出最近 30 天
+     * @param end 结束日期，为空时导出最近 30 天
+     * @param response 工作簿直接写入响应输出流
+     * @throws IOException
+     */
+    void exportBusinessData(LocalDate begin, LocalDate end, HttpServletResponse response) throws IOException;
+
+    /**
+     * 从订单表、用户表重新汇总日期范围内的每日汇总数据
+     * @param begin 开始日期
+     * @param end 结束日期
+     */
+    void rebuild(LocalDate begin, LocalDate end);
+}
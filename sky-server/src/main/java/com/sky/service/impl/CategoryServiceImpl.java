@@ -2,6 +2,7 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CategoryCache;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
 import com.sky.context.BaseContext;
@@ -12,6 +13,7 @@ import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.CategoryMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.menu.MenuSnapshot;
 import com.sky.result.PageResult;
 import com.sky.service.CategoryService;
 import org.springframework.beans.BeanUtils;
@@ -30,6 +32,10 @@ public class CategoryServiceImpl implements CategoryService {
     private DishMapper dishMapper;
     @Autowired
     private SetmealMapper setmealMapper;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+    @Autowired
+    private CategoryCache categoryCache;
 
     @Override
     public void update(CategoryDTO categoryDTO) {
@@ -39,6 +45,8 @@ public class CategoryServiceImpl implements CategoryService {
         //category.setUpdateUser(BaseContext.getCurrentId());
 
         categoryMapper.update(category);
+        categoryCache.invalidate();
+        menuSnapshot.invalidate(category.getId());
     }
 
     @Override
@@ -62,6 +70,8 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         categoryMapper.update(category);
+        categoryCache.invalidate();
+        menuSnapshot.invalidate(id);
     }
 
     @Override
@@ -78,6 +88,8 @@ public class CategoryServiceImpl implements CategoryService {
         //category.setUpdateUser(BaseContext.getCurrentId());
 
         categoryMapper.insert(category);
+        categoryCache.invalidate();
+        menuSnapshot.invalidateCategoryList();
     }
 
     @Override
@@ -97,10 +109,13 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryMapper.delete(id);
+        categoryCache.invalidate();
+        menuSnapshot.invalidate(id);
     }
 
     @Override
     public List<Category> list(Integer type) {
-        return categoryMapper.list(type);
+        // 优先从缓存中查询，分类修改后由 save、update、delete、startOrStop 清理缓存
+        return categoryCache.get(type, () -> categoryMapper.list(type));
     }
 }
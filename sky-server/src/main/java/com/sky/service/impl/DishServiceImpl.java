@@ -4,6 +4,7 @@ import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
+import com.sky.counter.WorkspaceCounter;
 import com.sky.dto.DishDTO;
 import com.sky.dto.DishPageQueryDTO;
 import com.sky.entity.Dish;
@@ -12,6 +13,8 @@ import com.sky.exception.DeletionNotAllowedException;
 import com.sky.mapper.DishFlavorMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealDishMapper;
+import com.sky.menu.MenuSnapshot;
+import com.sky.pricing.PricingEngine;
 import com.sky.result.PageResult;
 import com.sky.service.DishService;
 import com.sky.vo.DishVO;
@@ -22,6 +25,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class DishServiceImpl implements DishService {
@@ -32,6 +37,12 @@ public class DishServiceImpl implements DishService {
     private DishFlavorMapper dishFlavorMapper;
     @Autowired
     private SetmealDishMapper setmealDishMapper;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
 
     @Override
     @Transactional
@@ -54,6 +65,9 @@ public class DishServiceImpl implements DishService {
             dishFlavorMapper.insert(dishFlavors);
         }
 
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        menuSnapshot.invalidate(dishDTO.getCategoryId());
     }
 
     /**
@@ -107,6 +121,9 @@ public class DishServiceImpl implements DishService {
         // 根据菜品 id 集合批量删除关联的口味数据
         dishFlavorMapper.deleteByDishIds(ids);
 
+        // 只能删除停售的菜品，停售的菜品不在菜单快照中，无需刷新快照
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
     }
 
     /**
@@ -118,6 +135,8 @@ public class DishServiceImpl implements DishService {
     public void update(DishDTO dishDTO) {
         Dish dish = new Dish();
         BeanUtils.copyProperties(dishDTO, dish);
+        // 修改前的分类，菜品可能被移到其他分类
+        Dish dishDB = dishMapper.getById(dish.getId());
         dishMapper.update(dish);
 
         List<DishFlavor> flavors = dishDTO.getFlavors();
@@ -130,6 +149,13 @@ public class DishServiceImpl implements DishService {
         if (!flavors.isEmpty()) {
             dishFlavorMapper.insert(flavors);
         }
+
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        menuSnapshot.invalidate(dishDB.getCategoryId());
+        if (dish.getCategoryId() != null && !dish.getCategoryId().equals(dishDB.getCategoryId())) {
+            menuSnapshot.invalidate(dish.getCategoryId());
+        }
     }
 
     /**
@@ -171,6 +197,9 @@ public class DishServiceImpl implements DishService {
         dish.setStatus(status);
 
         dishMapper.update(dish);
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        menuSnapshot.invalidate(dishMapper.getById(id).getCategoryId());
     }
 
     /**
@@ -182,15 +211,21 @@ public class DishServiceImpl implements DishService {
         List<Dish> dishList = dishMapper.list(dish);
 
         List<DishVO> dishVOList = new ArrayList<>();
+        if (dishList == null || dishList.isEmpty()) {
+            return dishVOList;
+        }
+
+        // 一次性查询所有菜品的口味，并按菜品 id 分组
+        List<Long> dishIds = dishList.stream().map(Dish::getId).collect(Collectors.toList());
+        Map<Long, List<DishFlavor>> flavorMap = dishFlavorMapper.getFlavorsByDishIds(dishIds).stream()
+                .collect(Collectors.groupingBy(DishFlavor::getDishId));
 
         for (Dish d : dishList) {
             DishVO dishVO = new DishVO();
             BeanUtils.copyProperties(d, dishVO);
 
-            // 根据菜品 id 查询对应的口味
-            List<DishFlavor> flavors = dishFlavorMapper.getFlavorsByDishId(dishVO.getId());
-
-            dishVO.setFlavors(flavors);
+            // 取出菜品对应的口味
+            dishVO.setFlavors(flavorMap.getOrDefault(d.getId(), new ArrayList<>()));
             dishVOList.add(dishVO);
         }
 
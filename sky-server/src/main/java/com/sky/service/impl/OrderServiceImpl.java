@@ -4,6 +4,8 @@ import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
 import com.sky.constant.MessageConstant;
 import com.sky.context.BaseContext;
+import com.sky.counter.OrderStatusCounter;
+import com.sky.counter.WorkspaceCounter;
 import com.sky.dto.*;
 import com.sky.entity.AddressBook;
 import com.sky.entity.OrderDetail;
@@ -13,28 +15,60 @@ import com.sky.exception.AddressBookBusinessException;
 import com.sky.exception.OrderBusinessException;
 import com.sky.exception.ShoppingCartBusinessException;
 import com.sky.mapper.AddressBookMapper;
+import com.sky.mapper.OrderArchiveMapper;
 import com.sky.mapper.OrderDetailMapper;
 import com.sky.mapper.OrderMapper;
 import com.sky.mapper.ShoppingCartMapper;
+import com.sky.pricing.OrderPrice;
+import com.sky.pricing.PricingEngine;
+import com.sky.properties.OrderSubmitProperties;
+import com.sky.queue.OrderSubmitQueue;
+import com.sky.queue.PendingOrder;
+import com.sky.report.DailyStatRecorder;
+import com.sky.result.CursorPageResult;
 import com.sky.result.PageResult;
 import com.sky.service.OrderService;
+import com.sky.statemachine.OrderEvent;
+import com.sky.statemachine.OrderStateMachine;
+import com.sky.task.OrderArchiveTask;
+import com.sky.task.OrderTimeoutTask;
+import com.sky.utils.CursorUtil;
+import com.sky.utils.SnowflakeIdUtil;
+import com.sky.utils.TransactionUtil;
+import com.sky.vo.OrderBatchResultVO;
 import com.sky.vo.OrderStatisticsVO;
 import com.sky.vo.OrderSubmitVO;
 import com.sky.vo.OrderVO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    // 下单幂等键前缀
+    public static final String ORDER_SUBMIT_KEY = "order_submit_";
+
     @Autowired
     private OrderMapper orderMapper;
     @Autowired
@@ -43,6 +77,28 @@ public class OrderServiceImpl implements OrderService {
     private AddressBookMapper addressBookMapper;
     @Autowired
     private ShoppingCartMapper shoppingCartMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private DailyStatRecorder dailyStatRecorder;
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+    @Autowired
+    private SnowflakeIdUtil snowflakeIdUtil;
+    @Autowired
+    private OrderSubmitQueue orderSubmitQueue;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private OrderTimeoutTask orderTimeoutTask;
+    @Autowired
+    private OrderArchiveMapper orderArchiveMapper;
+    @Autowired
+    private OrderArchiveTask orderArchiveTask;
+    @Autowired
+    private OrderSubmitProperties orderSubmitProperties;
+    @Autowired
+    private RedisTemplate redisTemplate;
 
     /**
      * 用户下单
@@ -50,12 +106,22 @@ public class OrderServiceImpl implements OrderService {
      * @param ordersSubmitDTO
      * @return
      */
-    @Transactional
     public OrderSubmitVO submitOrder(OrdersSubmitDTO ordersSubmitDTO) {
-        // 根据 用户id 获得地址簿对象
-        AddressBook addressBook = addressBookMapper.getById(ordersSubmitDTO.getAddressBookId());
         // 获取当前 用户id
         Long userId = BaseContext.getCurrentId();
+
+        // 0.客户端重试时，直接返回第一次受理的结果；未传幂等键的旧客户端不去重
+        String idempotencyKey = null;
+        if (ordersSubmitDTO.getIdempotencyKey() != null && !ordersSubmitDTO.getIdempotencyKey().isEmpty()) {
+            idempotencyKey = ORDER_SUBMIT_KEY + userId + "_" + ordersSubmitDTO.getIdempotencyKey();
+            OrderSubmitVO accepted = (OrderSubmitVO) redisTemplate.opsForValue().get(idempotencyKey);
+            if (accepted != null) {
+                return accepted;
+            }
+        }
+
+        // 根据 用户id 获得地址簿对象
+        AddressBook addressBook = addressBookMapper.getById(ordersSubmitDTO.getAddressBookId());
         // 获取当前用户的购物车数据
         List<ShoppingCart> shoppingCartList = shoppingCartMapper.list(ShoppingCart.builder().userId(userId).build());
 
@@ -63,8 +129,8 @@ public class OrderServiceImpl implements OrderService {
         Orders orders = new Orders();
         // 订单明细集合
         List<OrderDetail> orderDetailList = new ArrayList<>();
-        // 返回结果
-        OrderSubmitVO orderSubmitVO = new OrderSubmitVO();
+        // 购物车id集合
+        List<Long> shoppingCartIds = new ArrayList<>();
 
         // 1.处理各种业务异常(地址簿为空，购物车为空)
         if (addressBook == null) {
@@ -75,39 +141,84 @@ public class OrderServiceImpl implements OrderService {
             throw new ShoppingCartBusinessException(MessageConstant.SHOPPING_CART_IS_NULL);
         }
 
-        // 2.向订单表插入 1 条数据
+        // 2.构造订单，订单 id 和订单号由雪花算法生成，无需等待数据库返回主键
+        long orderId = snowflakeIdUtil.nextId();
         BeanUtils.copyProperties(ordersSubmitDTO, orders);
+        orders.setId(orderId); // 设置订单id
         orders.setAddress(addressBook.toString()); // 设置地址
         orders.setOrderTime(LocalDateTime.now()); // 设置订单时间
-        orders.setUserId(BaseContext.getCurrentId()); // 设置用户id
+        orders.setUserId(userId); // 设置用户id
         orders.setConsignee(addressBook.getConsignee()); // 设置收货人姓名
         orders.setPayStatus(Orders.UN_PAID); // 设置支付状态
         orders.setStatus(Orders.PENDING_PAYMENT); // 设置订单状态
-        orders.setNumber(UUID.randomUUID().toString()); // 设置订单号
+        orders.setNumber(String.valueOf(orderId)); // 设置订单号
         orders.setPhone(addressBook.getPhone()); // 设置电话
 
-        orderMapper.insert(orders);
-
-        // 3.向订单明细表插入 n 条数据
+        // 3.构造订单明细
         for (ShoppingCart shoppingCart : shoppingCartList) {
             OrderDetail orderDetail = new OrderDetail();
-            BeanUtils.copyProperties(shoppingCart, orderDetail);
-            orderDetail.setOrderId(orders.getId());
+            BeanUtils.copyProperties(shoppingCart, orderDetail, "id");
+            orderDetail.setOrderId(orderId);
             orderDetailList.add(orderDetail); // 向列表中加入数据
+            shoppingCartIds.add(shoppingCart.getId());
         }
-        orderDetailMapper.insertBatch(orderDetailList); // 批量加入订单明细表
 
-        // 4.清空当前用户的购物车数据
-        shoppingCartMapper.deleteByUserId(userId);
+        // 4.在服务端重新计价，不使用客户端传入的金额
+        OrderPrice orderPrice = pricingEngine.price(orderDetailList);
+        orders.setAmount(orderPrice.getAmount());
+        orders.setPackAmount(orderPrice.getPackAmount());
 
         // 5.封装VO返回结果
-        orderSubmitVO = OrderSubmitVO.builder()
+        OrderSubmitVO orderSubmitVO = OrderSubmitVO.builder()
                 .id(orders.getId())
                 .orderNumber(orders.getNumber())
                 .orderAmount(orders.getAmount())
                 .orderTime(orders.getOrderTime())
                 .build();
 
+        // 6.记录幂等键，并发重试时只有一个请求能够受理
+        if (idempotencyKey != null) {
+            Boolean absent = redisTemplate.opsForValue().setIfAbsent(idempotencyKey, orderSubmitVO,
+                    orderSubmitProperties.getIdempotencyTtl(), TimeUnit.SECONDS);
+            if (!Boolean.TRUE.equals(absent)) {
+                OrderSubmitVO accepted = (OrderSubmitVO) redisTemplate.opsForValue().get(idempotencyKey);
+                if (accepted != null) {
+                    return accepted;
+                }
+            }
+        }
+
+        // 7.放入下单队列，由后台线程与其他订单一起批量写入订单、订单明细并清理购物车，
+        //   等待所在的批次提交后再返回；写入失败时删除幂等键，客户端可以使用同一个幂等键重新下单
+        PendingOrder pendingOrder = new PendingOrder(orders, orderDetailList, shoppingCartIds);
+        String acceptedKey = idempotencyKey;
+        if (!orderSubmitQueue.offer(pendingOrder)) {
+            if (acceptedKey != null) {
+                redisTemplate.delete(acceptedKey);
+            }
+            throw new OrderBusinessException(MessageConstant.ORDER_BUSY);
+        }
+        // 8.写入成功后登记支付超时时间；等待超时或线程被中断时，订单最终写入后同样会被登记
+        pendingOrder.getWritten().whenComplete((result, e) -> {
+            if (e == null) {
+                orderTimeoutTask.registerPayment(orders.getId(), orders.getOrderTime());
+            } else if (acceptedKey != null) {
+                redisTemplate.delete(acceptedKey);
+            }
+        });
+        try {
+            pendingOrder.getWritten().get(orderSubmitProperties.getWriteTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new OrderBusinessException(MessageConstant.ORDER_SUBMIT_FAILED);
+        } catch (TimeoutException e) {
+            // 订单仍在队列中，最终写入成功时客户端重试会得到同一个订单号，写入失败时幂等键被删除
+            log.warn("等待订单写入超时：{}", orders.getId());
+            throw new OrderBusinessException(MessageConstant.ORDER_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderBusinessException(MessageConstant.ORDER_BUSY);
+        }
+
         return orderSubmitVO;
     }
 
@@ -115,33 +226,21 @@ public class OrderServiceImpl implements OrderService {
      * 历史订单查询
      */
     public PageResult pageQuery4user(OrdersPageQueryDTO ordersPageQueryDTO) {
+        ordersPageQueryDTO.setUserId(BaseContext.getCurrentId());
+        ordersPageQueryDTO.setIncludeArchive(needArchive(ordersPageQueryDTO));
+
+        // 游标分页
+        if (ordersPageQueryDTO.getCursor() != null) {
+            return cursorPageQuery(ordersPageQueryDTO, this::getUserOrderVOList);
+        }
+
         // 设置分页
         PageHelper.startPage(ordersPageQueryDTO.getPage(), ordersPageQueryDTO.getPageSize());
 
-        ordersPageQueryDTO.setUserId(BaseContext.getCurrentId());
-
         // 分页条件查询
         Page<Orders> page = orderMapper.pageQuery(ordersPageQueryDTO);
 
-        List<OrderVO> list = new ArrayList<>();
-
-        // 查询出订单明细，并封装入 OrderVO 进行相应
-        if (page != null && !page.isEmpty()) {
-            for (Orders orders : page) {
-                Long orderId = orders.getId(); // 订单id
-
-                // 查询订单明细
-                List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(orderId);
-
-                OrderVO orderVO = new OrderVO();
-                BeanUtils.copyProperties(orders, orderVO);
-                orderVO.setOrderDetailList(orderDetailList);
-
-                list.add(orderVO);
-            }
-        }
-
-        return new PageResult(page.getTotal(), list);
+        return new PageResult(page.getTotal(), getUserOrderVOList(page));
     }
 
     /**
@@ -151,9 +250,19 @@ public class OrderServiceImpl implements OrderService {
      */
     public OrderVO getById(Long id) {
         Orders orders = orderMapper.getById(id);
+        List<OrderDetail> orderDetailList;
+        if (orders != null) {
+            orderDetailList = orderDetailMapper.getByOrderId(id);
+        } else {
+            // 热表中没有，说明订单已归档
+            orders = orderArchiveMapper.getById(id);
+            if (orders == null) {
+                throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
+            }
+            orderDetailList = orderArchiveMapper.getDetailsByOrderIds(Collections.singletonList(id));
+        }
         OrderVO orderVO = new OrderVO();
         BeanUtils.copyProperties(orders, orderVO);
-        List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(id);
         orderVO.setOrderDetailList(orderDetailList);
 
         return orderVO;
@@ -166,35 +275,29 @@ public class OrderServiceImpl implements OrderService {
      */
     public void cancel(Long id) {
         // 根据 id 查询订单
-        Orders orders = orderMapper.getById(id);
+        Orders ordersDB = orderMapper.getById(id);
 
         // 校验订单是否存在
-        if (orders == null) {
+        if (ordersDB == null) {
             throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
         }
 
-        // 订单状态 1待付款 2待接单 3已接单 4派送中 5已完成 6已取消
-        if (orders.getStatus() > 2) {
-            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
-        }
-
-        Orders orders1 = new Orders();
-        orders1.setId(orders.getId());
+        Orders orders = new Orders();
 
         // 订单处于待接单状态下取消，需要进行退款
-        if (orders.getStatus().equals(Orders.TO_BE_CONFIRMED)) {
-            // 调用微信支付退款接口
-            System.out.println("调用微信退款接口");
-
+        boolean needRefund = ordersDB.getStatus().equals(Orders.TO_BE_CONFIRMED);
+        if (needRefund) {
             // 支付状态修改为 退款
-            orders1.setPayStatus(Orders.REFUND);
+            orders.setPayStatus(Orders.REFUND);
         }
 
         // 更新订单状态、取消原因、取消时间
-        orders1.setStatus(Orders.CANCELLED);
-        orders1.setCancelReason("用户取消");
-        orders1.setCancelTime(LocalDateTime.now());
-        orderMapper.update(orders1);
+        orders.setCancelReason("用户取消");
+        orders.setCancelTime(LocalDateTime.now());
+        transit(ordersDB, OrderEvent.USER_CANCEL, orders);
+        if (needRefund) {
+            refund(id);
+        }
     }
 
     /**
@@ -203,8 +306,11 @@ public class OrderServiceImpl implements OrderService {
      * @param id 订单id
      */
     public void repetition(Long id) {
-        // 根据订单 id 查询订单明细
+        // 根据订单 id 查询订单明细，热表中没有时从归档表查询
         List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(id);
+        if (orderDetailList.isEmpty()) {
+            orderDetailList = orderArchiveMapper.getDetailsByOrderIds(Collections.singletonList(id));
+        }
 
         List<ShoppingCart> shoppingCartList = new ArrayList<>();
 
@@ -229,25 +335,17 @@ public class OrderServiceImpl implements OrderService {
      * @return
      */
     public PageResult pageQuery4Admin(OrdersPageQueryDTO ordersPageQueryDTO) {
-        PageHelper.startPage(ordersPageQueryDTO.getPage(), ordersPageQueryDTO.getPageSize());
-        Page<Orders> page = orderMapper.pageQuery(ordersPageQueryDTO);
-
-        List<OrderVO> list = new ArrayList<>();
+        ordersPageQueryDTO.setIncludeArchive(needArchive(ordersPageQueryDTO));
 
-        if (page != null && !page.isEmpty()) {
-            for (Orders orders : page) {
-                OrderVO orderVO = new OrderVO();
-                BeanUtils.copyProperties(orders, orderVO);
-                String orderDishes = getOrderDishesById(orders.getId());
-
-                // 将订单菜品信息封装到 orderVO 中，并添加到 orderVOList
-                orderVO.setOrderDishes(orderDishes);
-
-                list.add(orderVO);
-            }
+        // 游标分页
+        if (ordersPageQueryDTO.getCursor() != null) {
+            return cursorPageQuery(ordersPageQueryDTO, this::getAdminOrderVOList);
         }
 
-        return new PageResult(page.getTotal(), list);
+        PageHelper.startPage(ordersPageQueryDTO.getPage(), ordersPageQueryDTO.getPageSize());
+        Page<Orders> page = orderMapper.pageQuery(ordersPageQueryDTO);
+
+        return new PageResult(page.getTotal(), getAdminOrderVOList(page));
     }
 
     /**
@@ -256,9 +354,10 @@ public class OrderServiceImpl implements OrderService {
      * @return
      */
     public OrderStatisticsVO statistics() {
-        Integer toBeConfirmed = orderMapper.countStatus(Orders.TO_BE_CONFIRMED);
-        Integer confirmed = orderMapper.countStatus(Orders.CONFIRMED);
-        Integer deliveryInProgress = orderMapper.countStatus(Orders.DELIVERY_IN_PROGRESS);
+        // 直接读取 redis 中的计数，不查询数据库
+        Integer toBeConfirmed = orderStatusCounter.get(Orders.TO_BE_CONFIRMED);
+        Integer confirmed = orderStatusCounter.get(Orders.CONFIRMED);
+        Integer deliveryInProgress = orderStatusCounter.get(Orders.DELIVERY_IN_PROGRESS);
 
         OrderStatisticsVO orderStatisticsVO = OrderStatisticsVO.builder()
                 .toBeConfirmed(toBeConfirmed)
@@ -273,11 +372,13 @@ public class OrderServiceImpl implements OrderService {
      * 接单
      */
     public void confirm(OrdersConfirmDTO ordersConfirmDTO) {
-        // 根据 id 修改订单状态为 已接单
-        orderMapper.update(Orders.builder()
-                .id(ordersConfirmDTO.getId())
-                .status(Orders.CONFIRMED)
-                .build());
+        Orders ordersDB = orderMapper.getById(ordersConfirmDTO.getId());
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
+        }
+
+        // 只有处于“待接单”的订单才可以接单
+        transit(ordersDB, OrderEvent.CONFIRM, new Orders());
     }
 
     /**
@@ -289,26 +390,23 @@ public class OrderServiceImpl implements OrderService {
         Orders orders = new Orders();
         // 得到订单信息
         Orders ordersDB = orderMapper.getById(ordersRejectionDTO.getId());
-
-        // 只有处于“待接单”的订单才可以拒单
-        if (ordersDB == null || !ordersDB.getStatus().equals(Orders.TO_BE_CONFIRMED)) {
-            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
         }
 
-        if (ordersDB.getPayStatus().equals(Orders.PAID)) {
-            // 用户已支付，需要退款
-            System.out.println("wx退款");
+        // 用户已支付，需要退款
+        boolean needRefund = ordersDB.getPayStatus().equals(Orders.PAID);
+        if (needRefund) {
             orders.setPayStatus(Orders.REFUND);
         }
 
-        // 拒单需要退款，根据订单 id 更新订单状态、拒单原因、取消时间
-        orders.setId(ordersRejectionDTO.getId());
-        orders.setStatus(Orders.CANCELLED);
+        // 只有处于“待接单”的订单才可以拒单，更新订单状态、拒单原因、取消时间
         orders.setRejectionReason(ordersRejectionDTO.getRejectionReason());
         orders.setCancelTime(LocalDateTime.now());
-
-
-        orderMapper.update(orders);
+        transit(ordersDB, OrderEvent.REJECT, orders);
+        if (needRefund) {
+            refund(ordersDB.getId());
+        }
     }
 
     /**
@@ -318,8 +416,6 @@ public class OrderServiceImpl implements OrderService {
      */
     public void cancelByAdmin(OrdersCancelDTO ordersCancelDTO) {
         Orders orders = new Orders();
-        orders.setId(ordersCancelDTO.getId());
-        orders.setStatus(Orders.CANCELLED);
         orders.setCancelReason(ordersCancelDTO.getCancelReason());
         orders.setCancelTime(LocalDateTime.now());
 
@@ -328,14 +424,16 @@ public class OrderServiceImpl implements OrderService {
         if (ordersDB == null) {
             throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
         }
-        if (ordersDB.getPayStatus().equals(Orders.PAID)) {
-            // 退款
-            System.out.println("wx退款");
+        boolean needRefund = ordersDB.getPayStatus().equals(Orders.PAID);
+        if (needRefund) {
             // 更新支付状态
             orders.setPayStatus(Orders.REFUND);
         }
 
-        orderMapper.update(orders);
+        transit(ordersDB, OrderEvent.ADMIN_CANCEL, orders);
+        if (needRefund) {
+            refund(ordersDB.getId());
+        }
     }
 
     /**
@@ -343,15 +441,18 @@ public class OrderServiceImpl implements OrderService {
      * @param id 订单id
      */
     public void delivery(Long id) {
-        // 只有“待派送”的订单可以派送
         Orders ordersDB = orderMapper.getById(id);
-        if(ordersDB.getStatus().equals(Orders.CONFIRMED)){
-            Orders orders = new Orders();
-            orders.setId(id);
-            orders.setStatus(Orders.DELIVERY_IN_PROGRESS);
-
-            orderMapper.update(orders);
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
         }
+
+        // 只有“待派送”的订单可以派送
+        Orders orders = Orders.builder()
+                .deliveryStartTime(LocalDateTime.now())
+                .build();
+        transit(ordersDB, OrderEvent.DELIVER, orders);
+        // 登记派送超时时间，超时自动完成
+        orderTimeoutTask.registerDelivery(id, orders.getDeliveryStartTime());
     }
 
     /**
@@ -359,18 +460,383 @@ public class OrderServiceImpl implements OrderService {
      * @param id 订单id
      */
     public void complete(Long id) {
+        Orders ordersDB = orderMapper.getById(id);
+        if (ordersDB == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_NOT_FOUND);
+        }
+
+        // 只有“派送中”的订单可以完成
         Orders orders = Orders.builder()
-                .id(id)
-                .status(Orders.COMPLETED)
+                .deliveryTime(LocalDateTime.now())
+                .build();
+        transit(ordersDB, OrderEvent.COMPLETE, orders);
+    }
+
+    /**
+     * 批量接单
+     *
+     * @param ordersBatchDTO
+     * @return
+     */
+    @Transactional
+    public OrderBatchResultVO confirmBatch(OrdersBatchDTO ordersBatchDTO) {
+        return transitionBatch(ordersBatchDTO.getIds(), OrderEvent.CONFIRM, new Orders(), false);
+    }
+
+    /**
+     * 批量拒单
+     *
+     * @param ordersBatchDTO
+     * @return
+     */
+    @Transactional
+    public OrderBatchResultVO rejectionBatch(OrdersBatchDTO ordersBatchDTO) {
+        Orders target = Orders.builder()
+                .rejectionReason(ordersBatchDTO.getRejectionReason())
+                .cancelTime(LocalDateTime.now())
+                .build();
+
+        return transitionBatch(ordersBatchDTO.getIds(), OrderEvent.REJECT, target, true);
+    }
+
+    /**
+     * A端批量取消订单
+     *
+     * @param ordersBatchDTO
+     * @return
+     */
+    @Transactional
+    public OrderBatchResultVO cancelBatchByAdmin(OrdersBatchDTO ordersBatchDTO) {
+        Orders target = Orders.builder()
+                .cancelReason(ordersBatchDTO.getCancelReason())
+                .cancelTime(LocalDateTime.now())
                 .build();
 
-        orderMapper.update(orders);
+        return transitionBatch(ordersBatchDTO.getIds(), OrderEvent.ADMIN_CANCEL, target, true);
     }
 
-    private String getOrderDishesById(Long orderId) {
-        // 查询订单菜品详细信息(订单中的菜品和数量)
-        List<OrderDetail> orderDetailList = orderDetailMapper.getByOrderId(orderId);
+    /**
+     * 批量派送订单
+     *
+     * @param ordersBatchDTO
+     * @return
+     */
+    @Transactional
+    public OrderBatchResultVO deliveryBatch(OrdersBatchDTO ordersBatchDTO) {
+        Orders target = Orders.builder()
+                .deliveryStartTime(LocalDateTime.now())
+                .build();
+
+        return transitionBatch(ordersBatchDTO.getIds(), OrderEvent.DELIVER, target, false);
+    }
+
+    /**
+     * 批量完成订单
+     *
+     * @param ordersBatchDTO
+     * @return
+     */
+    @Transactional
+    public OrderBatchResultVO completeBatch(OrdersBatchDTO ordersBatchDTO) {
+        Orders target = Orders.builder()
+                .deliveryTime(LocalDateTime.now())
+                .build();
+
+        return transitionBatch(ordersBatchDTO.getIds(), OrderEvent.COMPLETE, target, false);
+    }
+
+    /**
+     * 批量修改订单状态，需要在事务中调用
+     * 一次查询所有订单，按 (当前状态, 是否需要退款) 分组，每组一条 update ... where status = 当前状态，
+     * 不存在或状态不合法的订单逐个返回失败原因，不影响其他订单
+     *
+     * @param ids    订单id集合
+     * @param event  事件
+     * @param target 除状态外需要修改的字段
+     * @param refund 已支付的订单是否需要退款
+     * @return
+     */
+    private OrderBatchResultVO transitionBatch(List<Long> ids, OrderEvent event, Orders target, boolean refund) {
+        List<Long> successIds = new ArrayList<>();
+        Map<Long, String> failures = new LinkedHashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return new OrderBatchResultVO(successIds, failures);
+        }
+
+        // 查询时不加锁，以查询到的状态作为更新条件，被并发修改的订单在更新时处理
+        Map<Long, Orders> ordersDBMap = orderMapper.getStatusByIds(ids).stream()
+                .collect(Collectors.toMap(Orders::getId, o -> o));
+
+        // 按 (当前状态, 是否需要退款) 分组
+        Map<TransitionGroup, List<Orders>> groups = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Orders ordersDB = ordersDBMap.get(id);
+            if (ordersDB == null) {
+                failures.put(id, MessageConstant.ORDER_NOT_FOUND);
+            } else if (!OrderStateMachine.canFire(ordersDB.getStatus(), event)) {
+                failures.put(id, MessageConstant.ORDER_STATUS_ERROR);
+            } else {
+                boolean needRefund = refund && Orders.PAID.equals(ordersDB.getPayStatus());
+                groups.computeIfAbsent(new TransitionGroup(ordersDB.getStatus(), needRefund), k -> new ArrayList<>()).add(ordersDB);
+            }
+        }
+
+        TransactionStatus transactionStatus = TransactionAspectSupport.currentTransactionStatus();
+        for (Map.Entry<TransitionGroup, List<Orders>> group : groups.entrySet()) {
+            Integer fromStatus = group.getKey().getFromStatus();
+            boolean needRefund = group.getKey().isNeedRefund();
+
+            Integer toStatus = OrderStateMachine.next(fromStatus, event);
+            Orders orders = new Orders();
+            BeanUtils.copyProperties(target, orders);
+            orders.setStatus(toStatus);
+            if (needRefund) {
+                // 用户已支付，需要退款
+                orders.setPayStatus(Orders.REFUND);
+            }
+
+            List<Orders> updated = updateGroup(transactionStatus, group.getValue(), fromStatus, orders, failures);
+            if (updated.isEmpty()) {
+                continue;
+            }
+
+            for (Orders ordersDB : updated) {
+                successIds.add(ordersDB.getId());
+                if (needRefund) {
+                    refund(ordersDB.getId());
+                }
+                if (Orders.DELIVERY_IN_PROGRESS.equals(toStatus)) {
+                    // 登记派送超时时间，超时自动完成
+                    orderTimeoutTask.registerDelivery(ordersDB.getId(), orders.getDeliveryStartTime());
+                }
+            }
+            orderStatusCounter.transition(fromStatus, toStatus, updated.size());
+            workspaceCounter.transition(updated, fromStatus, toStatus);
+            if (Orders.COMPLETED.equals(toStatus)) {
+                // 计入每日有效订单数和营业额
+                dailyStatRecorder.ordersCompleted(updated);
+            }
+        }
+
+        return new OrderBatchResultVO(successIds, failures);
+    }
+
+    /**
+     * 以 where status = fromStatus 为条件更新一组订单，返回由本次更新修改的订单
+     * 更新行数少于订单数时说明部分订单已被并发修改，但无法知道是哪些订单，
+     * 因此回滚到更新前的保存点，再逐个更新，只有更新行数为 1 的订单计为成功
+     *
+     * @param transactionStatus 当前事务
+     * @param ordersList        查询到的订单
+     * @param fromStatus        原状态
+     * @param orders            新状态和需要修改的字段
+     * @param failures          失败的订单及原因
+     * @return
+     */
+    private List<Orders> updateGroup(TransactionStatus transactionStatus, List<Orders> ordersList, Integer fromStatus,
+                                     Orders orders, Map<Long, String> failures) {
+        List<Long> groupIds = ordersList.stream().map(Orders::getId).collect(Collectors.toList());
+        Object savepoint = transactionStatus.createSavepoint();
+        int rows = orderMapper.updateStatusByIds(groupIds, fromStatus, orders);
+        if (rows == groupIds.size()) {
+            transactionStatus.releaseSavepoint(savepoint);
+            return ordersList;
+        }
+        transactionStatus.rollbackToSavepoint(savepoint);
+        transactionStatus.releaseSavepoint(savepoint);
+
+        List<Orders> updated = new ArrayList<>();
+        for (Orders ordersDB : ordersList) {
+            if (orderMapper.updateStatusByIds(Collections.singletonList(ordersDB.getId()), fromStatus, orders) == 1) {
+                updated.add(ordersDB);
+            } else {
+                failures.put(ordersDB.getId(), MessageConstant.ORDER_STATUS_ERROR);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 批量修改订单状态时的分组
+     */
+    @Data
+    @AllArgsConstructor
+    private static class TransitionGroup {
+        //当前状态
+        private Integer fromStatus;
+        //是否需要退款
+        private boolean needRefund;
+    }
+
+    /**
+     * 按状态机修改单个订单的状态
+     * 以查询到的状态作为条件更新，更新行数为 0 说明订单已被并发修改，本次流转失败
+     *
+     * @param ordersDB 查询到的订单
+     * @param event    事件
+     * @param orders   除状态外需要修改的字段
+     */
+    private void transit(Orders ordersDB, OrderEvent event, Orders orders) {
+        Integer fromStatus = ordersDB.getStatus();
+        Integer toStatus = OrderStateMachine.next(fromStatus, event);
+        orders.setStatus(toStatus);
+
+        int rows = orderMapper.updateStatusByIds(Collections.singletonList(ordersDB.getId()), fromStatus, orders);
+        if (rows == 0) {
+            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
+        }
+        orderStatusCounter.transition(fromStatus, toStatus);
+        workspaceCounter.transition(Collections.singletonList(ordersDB), fromStatus, toStatus);
+        if (Orders.COMPLETED.equals(toStatus)) {
+            // 计入每日有效订单数和营业额
+            dailyStatRecorder.orderCompleted(ordersDB);
+        }
+    }
+
+    /**
+     * 调用微信退款接口
+     * 只能在订单状态修改成功后调用，并发请求中只有修改成功的一个会退款；存在事务时在事务提交后退款
+     *
+     * @param id 订单id
+     */
+    private void refund(Long id) {
+        TransactionUtil.afterCommit(() -> System.out.println("调用微信退款接口，订单id：" + id));
+    }
+
+    /**
+     * 游标分页查询
+     * 按 (下单时间, id) 倒序，使用 where (order_time, id) < 游标 定位，不使用 offset，查询耗时与页码无关；
+     * 多查询一条用于判断是否存在下一页，默认不统计总记录数
+     *
+     * @param ordersPageQueryDTO
+     * @param voMapper           将订单转换为 OrderVO
+     * @return
+     */
+    private PageResult cursorPageQuery(OrdersPageQueryDTO ordersPageQueryDTO, Function<List<Orders>, List<OrderVO>> voMapper) {
+        String cursor = ordersPageQueryDTO.getCursor();
+        if (!cursor.isEmpty()) {
+            ordersPageQueryDTO.setCursorTime(CursorUtil.decodeTime(cursor));
+            ordersPageQueryDTO.setCursorId(CursorUtil.decodeId(cursor));
+            if (ordersPageQueryDTO.getCursorTime() == null || ordersPageQueryDTO.getCursorId() == null) {
+                throw new OrderBusinessException(MessageConstant.PAGE_CURSOR_ERROR);
+            }
+        }
+
+        int pageSize = ordersPageQueryDTO.getPageSize() > 0 ? ordersPageQueryDTO.getPageSize() : 10;
+        List<Orders> ordersList = orderMapper.pageQueryByCursor(ordersPageQueryDTO, pageSize + 1);
+
+        String nextCursor = null;
+        if (ordersList.size() > pageSize) {
+            ordersList = ordersList.subList(0, pageSize);
+            Orders last = ordersList.get(pageSize - 1);
+            nextCursor = CursorUtil.encode(last.getOrderTime(), last.getId());
+        }
+
+        long total = Boolean.TRUE.equals(ordersPageQueryDTO.getWithTotal())
+                ? orderMapper.countPageQuery(ordersPageQueryDTO)
+                : -1;
+
+        return new CursorPageResult(total, voMapper.apply(ordersList), nextCursor);
+    }
+
+    /**
+     * C端订单列表：查询出订单明细，并封装入 OrderVO 进行相应
+     *
+     * @param ordersList
+     * @return
+     */
+    private List<OrderVO> getUserOrderVOList(List<Orders> ordersList) {
+        List<OrderVO> list = new ArrayList<>();
+
+        if (ordersList != null && !ordersList.isEmpty()) {
+            // 一次性查询当前页所有订单的明细
+            Map<Long, List<OrderDetail>> orderDetailMap = getOrderDetailMap(ordersList);
+
+            for (Orders orders : ordersList) {
+                OrderVO orderVO = new OrderVO();
+                BeanUtils.copyProperties(orders, orderVO);
+                orderVO.setOrderDetailList(orderDetailMap.getOrDefault(orders.getId(), Collections.emptyList()));
+
+                list.add(orderVO);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * A端订单列表：查询出订单菜品信息，并封装入 OrderVO 进行相应
+     *
+     * @param ordersList
+     * @return
+     */
+    private List<OrderVO> getAdminOrderVOList(List<Orders> ordersList) {
+        List<OrderVO> list = new ArrayList<>();
+
+        if (ordersList != null && !ordersList.isEmpty()) {
+            // 一次性查询当前页所有订单的明细
+            Map<Long, List<OrderDetail>> orderDetailMap = getOrderDetailMap(ordersList);
+
+            for (Orders orders : ordersList) {
+                OrderVO orderVO = new OrderVO();
+                BeanUtils.copyProperties(orders, orderVO);
+                String orderDishes = getOrderDishes(orderDetailMap.getOrDefault(orders.getId(), Collections.emptyList()));
+
+                // 将订单菜品信息封装到 orderVO 中，并添加到 orderVOList
+                orderVO.setOrderDishes(orderDishes);
+
+                list.add(orderVO);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * 批量查询订单明细，并按订单 id 分组
+     *
+     * @param ordersList 订单集合
+     * @return key: 订单id, value: 该订单的明细
+     */
+    private Map<Long, List<OrderDetail>> getOrderDetailMap(List<Orders> ordersList) {
+        List<Long> orderIds = ordersList.stream()
+                .map(Orders::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderDetail>> orderDetailMap = orderDetailMapper.getByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderDetail::getOrderId));
+
+        // 包含归档订单时，热表中查不到的明细再从归档表查询
+        List<Long> archivedIds = orderIds.stream()
+                .filter(id -> !orderDetailMap.containsKey(id))
+                .collect(Collectors.toList());
+        if (!archivedIds.isEmpty()) {
+            orderDetailMap.putAll(orderArchiveMapper.getDetailsByOrderIds(archivedIds).stream()
+                    .collect(Collectors.groupingBy(OrderDetail::getOrderId)));
+        }
+
+        return orderDetailMap;
+    }
+
+    /**
+     * 客户端指定查询归档表，或开始、结束时间早于归档边界时，需要同时查询归档表；
+     * 没有指定时间范围时默认只查询热表，大多数查询只需要最近的订单，不必每次合并归档表
+     *
+     * @param ordersPageQueryDTO
+     * @return
+     */
+    private boolean needArchive(OrdersPageQueryDTO ordersPageQueryDTO) {
+        if (Boolean.TRUE.equals(ordersPageQueryDTO.getIncludeArchive())) {
+            return true;
+        }
+        LocalDateTime archiveBefore = orderArchiveTask.getArchiveBefore();
+        LocalDateTime beginTime = ordersPageQueryDTO.getBeginTime();
+        LocalDateTime endTime = ordersPageQueryDTO.getEndTime();
+        return (beginTime != null && beginTime.isBefore(archiveBefore))
+                || (endTime != null && endTime.isBefore(archiveBefore));
+    }
 
+    private String getOrderDishes(List<OrderDetail> orderDetailList) {
         // 将每一条菜品信息拼接为字符串（格式：宫保鸡丁*3）
         List<String> orderDishList = orderDetailList.stream()
                 .map(x -> x.getName() + "*" + x.getNumber() + ";")
@@ -0,0 +1,248 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.dto.GoodsSalesDTO;
+import com.sky.entity.DailyStat;
+import com.sky.exception.ReportBusinessException;
+import com.sky.mapper.DailyStatMapper;
+import com.sky.properties.SalesRankingProperties;
+import com.sky.report.BusinessReportWriter;
+import com.sky.report.SalesRanking;
+import com.sky.service.ReportService;
+import com.sky.vo.OrderReportVO;
+import com.sky.vo.SalesTop10ReportVO;
+import com.sky.vo.TurnoverReportVO;
+import com.sky.vo.UserReportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 报表统计
+ * 所有报表都读取每日汇总表 daily_stat，一次按主键范围查询即可得到整个日期范围的数据，不再逐天聚合订单表、用户表
+ */
+@Service
+@Slf4j
+public class ReportServiceImpl implements ReportService {
+
+    // 默认导出的天数
+    private static final int EXPORT_DAYS = 30;
+    // 日期范围最多的天数，所有报表、导出和重新汇总都不能超过
+    private static final int MAX_DAYS = 731;
+    // 重新汇总时每个事务处理的天数
+    private static final int REBUILD_BATCH_DAYS = 31;
+
+    @Autowired
+    private DailyStatMapper dailyStatMapper;
+    @Autowired
+    private SalesRanking salesRanking;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SalesRankingProperties salesRankingProperties;
+
+    /**
+     * 营业额统计
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @return
+     */
+    public TurnoverReportVO getTurnoverStatistics(LocalDate begin, LocalDate end) {
+        List<DailyStat> dailyStats = getDailyStats(begin, end);
+
+        return TurnoverReportVO.builder()
+                .dateList(join(dailyStats, DailyStat::getStatDate))
+                .turnoverList(join(dailyStats, DailyStat::getTurnover))
+                .build();
+    }
+
+    /**
+     * 用户统计
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @return
+     */
+    public UserReportVO getUserStatistics(LocalDate begin, LocalDate end) {
+        List<DailyStat> dailyStats = getDailyStats(begin, end);
+
+        // 用户总量 = 开始日期之前的用户总量 + 截至当天的新增用户数
+        int total = dailyStatMapper.sumNewUserBefore(begin);
+        List<Integer> totalUserList = new ArrayList<>(dailyStats.size());
+        for (DailyStat dailyStat : dailyStats) {
+            total += dailyStat.getNewUserCount();
+            totalUserList.add(total);
+        }
+
+        return UserReportVO.builder()
+                .dateList(join(dailyStats, DailyStat::getStatDate))
+                .totalUserList(join(totalUserList, Function.identity()))
+                .newUserList(join(dailyStats, DailyStat::getNewUserCount))
+                .build();
+    }
+
+    /**
+     * 订单统计
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @return
+     */
+    public OrderReportVO getOrderStatistics(LocalDate begin, LocalDate end) {
+        List<DailyStat> dailyStats = getDailyStats(begin, end);
+
+        int totalOrderCount = dailyStats.stream().mapToInt(DailyStat::getOrderCount).sum();
+        int validOrderCount = dailyStats.stream().mapToInt(DailyStat::getValidOrderCount).sum();
+        double orderCompletionRate = totalOrderCount == 0 ? 0.0 : (double) validOrderCount / totalOrderCount;
+
+        return OrderReportVO.builder()
+                .dateList(join(dailyStats, DailyStat::getStatDate))
+                .orderCountList(join(dailyStats, DailyStat::getOrderCount))
+                .validOrderCountList(join(dailyStats, DailyStat::getValidOrderCount))
+                .totalOrderCount(totalOrderCount)
+                .validOrderCount(validOrderCount)
+                .orderCompletionRate(orderCompletionRate)
+                .build();
+    }
+
+    /**
+     * 销量排名前 10 的商品，合并每天的销量统计得到，不查询订单明细表
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @return
+     */
+    public SalesTop10ReportVO getSalesTop10(LocalDate begin, LocalDate end) {
+        checkRange(begin, end);
+        // 每日销量排行只保留 retentionDays 天，更早的日期已过期，不能返回不完整的排行
+        if (begin.isBefore(LocalDate.now().minusDays(salesRankingProperties.getRetentionDays() - 1))) {
+            throw new ReportBusinessException(MessageConstant.REPORT_DATE_RANGE_TOO_LONG);
+        }
+
+        List<GoodsSalesDTO> list = salesRanking.top(begin, end, 10);
+
+        return SalesTop10ReportVO.builder()
+                .nameList(join(list, GoodsSalesDTO::getName))
+                .numberList(join(list, GoodsSalesDTO::getNumber))
+                .build();
+    }
+
+    /**
+     * 导出运营数据报表
+     * 游标逐行读取每日汇总数据，边读边流式写入工作簿，内存占用与日期范围的长度无关
+     *
+     * @param begin    开始日期，为空时导出最近 30 天
+     * @param end      结束日期，为空时导出最近 30 天
+     * @param response 工作簿直接写入响应输出流
+     * @throws IOException
+     */
+    public void exportBusinessData(LocalDate begin, LocalDate end, HttpServletResponse response) throws IOException {
+        if (begin == null && end == null) {
+            end = LocalDate.now().minusDays(1);
+            begin = end.minusDays(EXPORT_DAYS - 1);
+        }
+        checkRange(begin, end);
+
+        String filename = URLEncoder.encode("运营数据报表_" + begin + "_" + end + ".xlsx", StandardCharsets.UTF_8.name());
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + filename);
+
+        try (BusinessReportWriter writer = new BusinessReportWriter(begin, end)) {
+            dailyStatMapper.stream(begin, end, writer);
+            writer.finish(response.getOutputStream());
+        }
+        log.info("运营数据报表已导出：{} ~ {}", begin, end);
+    }
+
+    /**
+     * 重新汇总每日数据，先删除日期范围内的汇总数据，再从订单表（含归档表）、用户表聚合写入；商品销量排行按天精确统计后覆盖
+     * 每 31 天一个事务，长日期范围不会长时间持有锁
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     */
+    public void rebuild(LocalDate begin, LocalDate end) {
+        checkRange(begin, end);
+
+        for (LocalDate from = begin; !from.isAfter(end); from = from.plusDays(REBUILD_BATCH_DAYS)) {
+            LocalDate to = from.plusDays(REBUILD_BATCH_DAYS - 1).isBefore(end) ? from.plusDays(REBUILD_BATCH_DAYS - 1) : end;
+            LocalDate batchBegin = from;
+            transactionTemplate.executeWithoutResult(status -> rebuildBatch(batchBegin, to));
+        }
+        log.info("每日汇总数据已重建：{} ~ {}", begin, end);
+    }
+
+    private void rebuildBatch(LocalDate begin, LocalDate end) {
+        dailyStatMapper.deleteRange(begin, end);
+        dailyStatMapper.rebuildOrders(begin.atStartOfDay(), end.plusDays(1).atStartOfDay());
+        dailyStatMapper.rebuildUsers(begin.atStartOfDay(), end.plusDays(1).atStartOfDay());
+        for (LocalDate date = begin; !date.isAfter(end); date = date.plusDays(1)) {
+            salesRanking.rebuild(date);
+        }
+    }
+
+    /**
+     * 查询日期范围内每一天的汇总数据，没有数据的日期补 0
+     *
+     * @param begin 开始日期
+     * @param end   结束日期
+     * @return 按日期升序，每天一条
+     */
+    private List<DailyStat> getDailyStats(LocalDate begin, LocalDate end) {
+        checkRange(begin, end);
+
+        Map<LocalDate, DailyStat> dailyStatMap = dailyStatMapper.list(begin, end).stream()
+                .collect(Collectors.toMap(DailyStat::getStatDate, s -> s));
+
+        List<DailyStat> dailyStats = new ArrayList<>();
+        for (LocalDate date = begin; !date.isAfter(end); date = date.plusDays(1)) {
+            DailyStat dailyStat = dailyStatMap.get(date);
+            if (dailyStat == null) {
+                dailyStat = DailyStat.builder()
+                        .statDate(date)
+                        .orderCount(0)
+                        .validOrderCount(0)
+                        .turnover(BigDecimal.ZERO)
+                        .newUserCount(0)
+                        .build();
+            }
+            dailyStats.add(dailyStat);
+        }
+        return dailyStats;
+    }
+
+    private void checkRange(LocalDate begin, LocalDate end) {
+        if (begin == null || end == null || begin.isAfter(end)) {
+            throw new ReportBusinessException(MessageConstant.REPORT_DATE_RANGE_ERROR);
+        }
+        if (ChronoUnit.DAYS.between(begin, end) + 1 > MAX_DAYS) {
+            throw new ReportBusinessException(MessageConstant.REPORT_DATE_RANGE_TOO_LONG);
+        }
+    }
+
+    /**
+     * 取出每一项的指定字段，以逗号拼接
+     */
+    private <T> String join(List<T> list, Function<T, ?> getter) {
+        return list.stream()
+                .map(getter)
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+}
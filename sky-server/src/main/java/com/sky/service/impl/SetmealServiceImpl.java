@@ -2,8 +2,10 @@ package com.sky.service.impl;
 
 import com.github.pagehelper.Page;
 import com.github.pagehelper.PageHelper;
+import com.sky.cache.CacheWarmer;
 import com.sky.constant.MessageConstant;
 import com.sky.constant.StatusConstant;
+import com.sky.counter.WorkspaceCounter;
 import com.sky.dto.SetmealDTO;
 import com.sky.dto.SetmealPageQueryDTO;
 import com.sky.entity.Setmeal;
@@ -14,19 +16,30 @@ import com.sky.mapper.CategoryMapper;
 import com.sky.mapper.DishMapper;
 import com.sky.mapper.SetmealDishMapper;
 import com.sky.mapper.SetmealMapper;
+import com.sky.menu.MenuSnapshot;
+import com.sky.pricing.PricingEngine;
 import com.sky.result.PageResult;
 import com.sky.result.Result;
 import com.sky.service.SetmealService;
+import com.sky.utils.TransactionUtil;
 import com.sky.vo.DishItemVO;
 import com.sky.vo.SetmealVO;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
+@Slf4j
 public class SetmealServiceImpl implements SetmealService {
 
     @Autowired
@@ -37,6 +50,14 @@ public class SetmealServiceImpl implements SetmealService {
     private SetmealDishMapper setmealDishMapper;
     @Autowired
     private CategoryMapper categoryMapper;
+    @Autowired
+    private PricingEngine pricingEngine;
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+    @Autowired
+    private MenuSnapshot menuSnapshot;
+    @Autowired
+    private CacheManager cacheManager;
 
     /**
      * 新增套餐
@@ -59,6 +80,10 @@ public class SetmealServiceImpl implements SetmealService {
             }
             setmealDishMapper.insert(setmealDishes);
         }
+
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        menuSnapshot.invalidate(setmealDTO.getCategoryId());
     }
 
     /**
@@ -73,10 +98,16 @@ public class SetmealServiceImpl implements SetmealService {
 
         // 如果全部为停售，执行批量删除操作
         if (setmealStartIds.isEmpty()) {
+            // 被删除的套餐所属的分类
+            List<Long> categoryIds = setmealMapper.getCategoryIdsByIds(ids);
             // 批量删除套餐信息
             setmealMapper.deleteBatch(ids);
             // 批量删除套餐菜品关联信息
             setmealDishMapper.deleteBatch(ids);
+            // 停售的套餐不在菜单快照中，无需刷新快照
+            pricingEngine.refresh();
+            workspaceCounter.menuChanged();
+            evictSetmealCache(categoryIds);
         } else {
             throw new DeletionNotAllowedException(MessageConstant.SETMEAL_ON_SALE);
         }
@@ -91,6 +122,9 @@ public class SetmealServiceImpl implements SetmealService {
         Setmeal setmeal = new Setmeal();
         BeanUtils.copyProperties(setmealDTO, setmeal);
 
+        // 修改前的分类，套餐可能被移到其他分类
+        Setmeal setmealDB = setmealMapper.getById(setmeal.getId());
+
         // 修改套餐信息
         setmealMapper.update(setmeal);
 
@@ -107,6 +141,15 @@ public class SetmealServiceImpl implements SetmealService {
             }
             setmealDishMapper.insert(setmealDishes);
         }
+
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        menuSnapshot.invalidate(setmealDB.getCategoryId());
+        if (setmeal.getCategoryId() != null && !setmeal.getCategoryId().equals(setmealDB.getCategoryId())) {
+            menuSnapshot.invalidate(setmeal.getCategoryId());
+        }
+        // 套餐移到其他分类时，原分类和新分类的缓存都需要清理
+        evictSetmealCache(Arrays.asList(setmealDB.getCategoryId(), setmeal.getCategoryId()));
     }
 
     /**
@@ -134,6 +177,30 @@ public class SetmealServiceImpl implements SetmealService {
                 .status(status)
                 .build();
         setmealMapper.update(setmeal);
+        pricingEngine.refresh();
+        workspaceCounter.menuChanged();
+        Long categoryId = setmealMapper.getById(id).getCategoryId();
+        menuSnapshot.invalidate(categoryId);
+        evictSetmealCache(Arrays.asList(categoryId));
+    }
+
+    /**
+     * 事务提交后清理指定分类的 C端套餐缓存，其他分类的缓存不受影响
+     *
+     * @param categoryIds 受影响的分类id
+     */
+    private void evictSetmealCache(Collection<Long> categoryIds) {
+        Set<Long> keys = new LinkedHashSet<>(categoryIds);
+        keys.remove(null);
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        TransactionUtil.afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheWarmer.SETMEAL_CACHE);
+            keys.forEach(cache::evict);
+            log.info("清理套餐缓存：{}", keys);
+        });
     }
 
     /**
@@ -3,11 +3,13 @@ package com.sky.service.impl;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.sky.constant.MessageConstant;
+import com.sky.counter.WorkspaceCounter;
 import com.sky.dto.UserLoginDTO;
 import com.sky.entity.User;
 import com.sky.exception.LoginFailedException;
 import com.sky.mapper.UserMapper;
 import com.sky.properties.WeChatProperties;
+import com.sky.report.DailyStatRecorder;
 import com.sky.service.UserService;
 import com.sky.utils.HttpClientUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +31,12 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private DailyStatRecorder dailyStatRecorder;
+
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+
     /**
      * 微信登录
      *
@@ -54,6 +62,9 @@ public class UserServiceImpl implements UserService {
                     .createTime(LocalDateTime.now())
                     .build();
             userMapper.insert(user);
+            // 累加当天新增用户数
+            dailyStatRecorder.userCreated(user);
+            workspaceCounter.userCreated(user);
         }
 
         // 返回这个用户对象
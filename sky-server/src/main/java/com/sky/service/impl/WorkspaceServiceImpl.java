@@ -0,0 +1,94 @@
+package com.sky.service.impl;
+
+import com.sky.constant.StatusConstant;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.entity.Orders;
+import com.sky.service.WorkspaceService;
+import com.sky.vo.BusinessDataVO;
+import com.sky.vo.DishOverViewVO;
+import com.sky.vo.OrderOverViewVO;
+import com.sky.vo.SetmealOverViewVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 工作台
+ * 所有数据都从内存中的工作台计数器读取，轮询工作台不访问数据库
+ */
+@Service
+public class WorkspaceServiceImpl implements WorkspaceService {
+
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+
+    /**
+     * 查询今日运营数据
+     *
+     * @return
+     */
+    public BusinessDataVO getBusinessData() {
+        long totalOrderCount = getTotalOrderCount();
+        long validOrderCount = workspaceCounter.get(WorkspaceCounter.STATUS + Orders.COMPLETED);
+        long turnoverCents = workspaceCounter.get(WorkspaceCounter.TURNOVER);
+
+        return BusinessDataVO.builder()
+                .turnover(turnoverCents / 100.0)
+                .validOrderCount((int) validOrderCount)
+                .orderCompletionRate(totalOrderCount == 0 ? 0.0 : (double) validOrderCount / totalOrderCount)
+                .unitPrice(validOrderCount == 0 ? 0.0 : turnoverCents / 100.0 / validOrderCount)
+                .newUsers((int) workspaceCounter.get(WorkspaceCounter.NEW_USERS))
+                .build();
+    }
+
+    /**
+     * 查询今日订单管理数据
+     *
+     * @return
+     */
+    public OrderOverViewVO getOrderOverView() {
+        return OrderOverViewVO.builder()
+                .waitingOrders((int) workspaceCounter.get(WorkspaceCounter.STATUS + Orders.TO_BE_CONFIRMED))
+                .deliveredOrders((int) workspaceCounter.get(WorkspaceCounter.STATUS + Orders.CONFIRMED))
+                .completedOrders((int) workspaceCounter.get(WorkspaceCounter.STATUS + Orders.COMPLETED))
+                .cancelledOrders((int) workspaceCounter.get(WorkspaceCounter.STATUS + Orders.CANCELLED))
+                .allOrders((int) getTotalOrderCount())
+                .build();
+    }
+
+    /**
+     * 查询菜品总览
+     *
+     * @return
+     */
+    public DishOverViewVO getDishOverView() {
+        return DishOverViewVO.builder()
+                .sold((int) workspaceCounter.getMenu(WorkspaceCounter.DISH + StatusConstant.ENABLE))
+                .discontinued((int) workspaceCounter.getMenu(WorkspaceCounter.DISH + StatusConstant.DISABLE))
+                .build();
+    }
+
+    /**
+     * 查询套餐总览
+     *
+     * @return
+     */
+    public SetmealOverViewVO getSetmealOverView() {
+        return SetmealOverViewVO.builder()
+                .sold((int) workspaceCounter.getMenu(WorkspaceCounter.SETMEAL + StatusConstant.ENABLE))
+                .discontinued((int) workspaceCounter.getMenu(WorkspaceCounter.SETMEAL + StatusConstant.DISABLE))
+                .build();
+    }
+
+    /**
+     * 今日订单总数，即各个状态的订单数量之和
+     *
+     * @return
+     */
+    private long getTotalOrderCount() {
+        long total = 0;
+        for (int status = Orders.PENDING_PAYMENT; status <= Orders.CANCELLED; status++) {
+            total += workspaceCounter.get(WorkspaceCounter.STATUS + status);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sky.shop;
+
+import com.sky.constant.StatusConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 店铺营业状态，每个实例在内存中保存一份，查询时不再访问 redis
+ * 修改时写入 redis 并通过发布订阅通知所有实例；定时任务定期从 redis 校对，作为漏收通知时的兜底
+ */
+@Component
+@Slf4j
+public class ShopStatusHolder {
+
+    // redis 中保存营业状态的 key
+    public static final String KEY = "SHOP_STATUS";
+    // 营业状态变更通知的频道
+    public static final String CHANGED_CHANNEL = "shop_status_changed";
+
+    @Autowired
+    private RedisTemplate redisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // 1 营业中 0 打烊中，redis 中没有设置过时默认打烊
+    private volatile Integer status = StatusConstant.DISABLE;
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            status = Integer.valueOf(new String(message.getBody(), StandardCharsets.UTF_8));
+        }, new ChannelTopic(CHANGED_CHANNEL));
+        reload();
+    }
+
+    /**
+     * 获取营业状态
+     *
+     * @return
+     */
+    public Integer get() {
+        return status;
+    }
+
+    /**
+     * 设置营业状态，并通知其他实例
+     *
+     * @param status
+     */
+    public void set(Integer status) {
+        redisTemplate.opsForValue().set(KEY, status);
+        this.status = status;
+        stringRedisTemplate.convertAndSend(CHANGED_CHANNEL, String.valueOf(status));
+    }
+
+    /**
+     * 从 redis 重新加载营业状态，redis 不可用时保留当前状态
+     */
+    public void reload() {
+        try {
+            Integer redisStatus = (Integer) redisTemplate.opsForValue().get(KEY);
+            Integer current = redisStatus == null ? StatusConstant.DISABLE : redisStatus;
+            if (!current.equals(status)) {
+                log.info("店铺营业状态与 redis 不一致，已修正为：{}", current);
+                status = current;
+            }
+        } catch (Exception e) {
+            log.warn("从 redis 加载店铺营业状态失败，继续使用内存中的状态：{}", status, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sky.statemachine;
+
+/**
+ * 触发订单状态流转的事件
+ */
+public enum OrderEvent {
+
+    /**
+     * 用户支付
+     */
+    PAY,
+
+    /**
+     * 用户取消
+     */
+    USER_CANCEL,
+
+    /**
+     * 商家接单
+     */
+    CONFIRM,
+
+    /**
+     * 商家拒单
+     */
+    REJECT,
+
+    /**
+     * 商家取消
+     */
+    ADMIN_CANCEL,
+
+    /**
+     * 派送
+     */
+    DELIVER,
+
+    /**
+     * 完成
+     */
+    COMPLETE,
+
+    /**
+     * 超时未支付
+     */
+    PAYMENT_TIMEOUT
+
+}
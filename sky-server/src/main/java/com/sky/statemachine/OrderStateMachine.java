@@ -0,0 +1,76 @@
+package com.sky.statemachine;
+
+import com.sky.constant.MessageConstant;
+import com.sky.entity.Orders;
+import com.sky.exception.OrderBusinessException;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 订单状态机
+ * 状态流转表：当前状态 + 事件 -> 新状态，表中不存在的组合均为非法流转；
+ * 修改订单状态时以当前状态作为条件 (update ... where status = 当前状态)，并发请求中只有一个能够成功
+ */
+public class OrderStateMachine {
+
+    private static final Map<Integer, Map<OrderEvent, Integer>> TRANSITIONS = new HashMap<>();
+
+    static {
+        // 待付款
+        transition(Orders.PENDING_PAYMENT, OrderEvent.PAY, Orders.TO_BE_CONFIRMED);
+        transition(Orders.PENDING_PAYMENT, OrderEvent.USER_CANCEL, Orders.CANCELLED);
+        transition(Orders.PENDING_PAYMENT, OrderEvent.ADMIN_CANCEL, Orders.CANCELLED);
+        transition(Orders.PENDING_PAYMENT, OrderEvent.PAYMENT_TIMEOUT, Orders.CANCELLED);
+        // 项目中还没有支付回调，订单不会进入待接单状态，商家可以直接接待付款的订单
+        transition(Orders.PENDING_PAYMENT, OrderEvent.CONFIRM, Orders.CONFIRMED);
+
+        // 待接单
+        transition(Orders.TO_BE_CONFIRMED, OrderEvent.CONFIRM, Orders.CONFIRMED);
+        transition(Orders.TO_BE_CONFIRMED, OrderEvent.REJECT, Orders.CANCELLED);
+        transition(Orders.TO_BE_CONFIRMED, OrderEvent.USER_CANCEL, Orders.CANCELLED);
+        transition(Orders.TO_BE_CONFIRMED, OrderEvent.ADMIN_CANCEL, Orders.CANCELLED);
+
+        // 已接单
+        transition(Orders.CONFIRMED, OrderEvent.DELIVER, Orders.DELIVERY_IN_PROGRESS);
+        transition(Orders.CONFIRMED, OrderEvent.ADMIN_CANCEL, Orders.CANCELLED);
+
+        // 派送中
+        transition(Orders.DELIVERY_IN_PROGRESS, OrderEvent.COMPLETE, Orders.COMPLETED);
+        transition(Orders.DELIVERY_IN_PROGRESS, OrderEvent.ADMIN_CANCEL, Orders.CANCELLED);
+
+        // 已完成、已取消为终态，不能再流转
+    }
+
+    private static void transition(Integer from, OrderEvent event, Integer to) {
+        TRANSITIONS.computeIfAbsent(from, k -> new EnumMap<>(OrderEvent.class)).put(event, to);
+    }
+
+    /**
+     * 判断当前状态下能否处理该事件
+     *
+     * @param from  当前状态
+     * @param event 事件
+     * @return
+     */
+    public static boolean canFire(Integer from, OrderEvent event) {
+        return TRANSITIONS.getOrDefault(from, Collections.emptyMap()).containsKey(event);
+    }
+
+    /**
+     * 获取流转后的状态，非法流转时抛出业务异常
+     *
+     * @param from  当前状态
+     * @param event 事件
+     * @return 新状态
+     */
+    public static Integer next(Integer from, OrderEvent event) {
+        Integer to = TRANSITIONS.getOrDefault(from, Collections.emptyMap()).get(event);
+        if (to == null) {
+            throw new OrderBusinessException(MessageConstant.ORDER_STATUS_ERROR);
+        }
+        return to;
+    }
+}
@@ -0,0 +1,42 @@
+package com.sky.task;
+
+import com.sky.lock.TaskLock;
+import com.sky.service.ReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 定时任务类，维护每日汇总表
+ */
+@Component
+@Slf4j
+public class DailyStatTask {
+
+    // 每晚重新汇总最近几天的数据，修正增量累加可能出现的偏差
+    private static final int RECONCILE_DAYS = 2;
+
+    // 重新汇总任务锁的名称和过期时间(秒)
+    private static final String LOCK_NAME = "daily_stat_rebuild";
+    private static final long LOCK_TTL_SECONDS = 3600;
+
+    @Autowired
+    private ReportService reportService;
+    @Autowired
+    private TaskLock taskLock;
+
+    /**
+     * 每天凌晨 1 点重新汇总最近两天（含前一天）的数据，多个实例中只有获取到任务锁的实例执行
+     */
+    @Scheduled(cron = "0 0 1 * * ?")
+    public void reconcile() {
+        taskLock.runExclusively(LOCK_NAME, LOCK_TTL_SECONDS, () -> {
+            LocalDate today = LocalDate.now();
+            log.info("校对每日汇总数据");
+            reportService.rebuild(today.minusDays(RECONCILE_DAYS), today.minusDays(1));
+        });
+    }
+}
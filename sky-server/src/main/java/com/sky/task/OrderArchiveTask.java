@@ -0,0 +1,61 @@
+package com.sky.task;
+
+import com.sky.archive.OrderArchiver;
+import com.sky.lock.TaskLock;
+import com.sky.properties.OrderArchiveProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务类，将已完成、已取消的历史订单移入归档表
+ */
+@Component
+@Slf4j
+public class OrderArchiveTask {
+
+    // 归档任务锁的名称和过期时间(秒)
+    private static final String LOCK_NAME = "order_archive";
+    private static final long LOCK_TTL_SECONDS = 3600;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private OrderArchiveProperties orderArchiveProperties;
+    @Autowired
+    private TaskLock taskLock;
+
+    /**
+     * 归档边界：下单时间早于该时间的终态订单会被归档
+     *
+     * @return
+     */
+    public LocalDateTime getArchiveBefore() {
+        return LocalDateTime.now().minusDays(orderArchiveProperties.getAgeDays());
+    }
+
+    /**
+     * 每天凌晨 3 点分批归档，每批一个事务，避免长事务和大范围锁表；多个实例中只有获取到任务锁的实例执行
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void archive() {
+        taskLock.runExclusively(LOCK_NAME, LOCK_TTL_SECONDS, this::archiveAll);
+    }
+
+    private void archiveAll() {
+        LocalDateTime before = getArchiveBefore();
+        log.info("归档 {} 之前的历史订单", before);
+
+        long total = 0;
+        int rows;
+        do {
+            rows = orderArchiver.archiveBatch(before, orderArchiveProperties.getBatchSize());
+            total += rows;
+        } while (rows >= orderArchiveProperties.getBatchSize());
+
+        log.info("归档历史订单完成，共 {} 条", total);
+    }
+}
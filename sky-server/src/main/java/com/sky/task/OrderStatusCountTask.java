@@ -0,0 +1,41 @@
+package com.sky.task;
+
+import com.sky.counter.OrderStatusCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，定期校对 redis 中的订单状态计数
+ */
+@Component
+@Slf4j
+public class OrderStatusCountTask {
+
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+
+    /**
+     * 应用启动后对账一次，redis 中还没有计数时从数据库初始化
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            orderStatusCounter.reconcile();
+        } catch (Exception e) {
+            log.warn("初始化订单状态计数失败，等待下次对账", e);
+        }
+    }
+
+    /**
+     * 每 5 分钟与数据库对账一次
+     */
+    @Scheduled(cron = "0 0/5 * * * ?")
+    public void reconcile() {
+        log.info("校对订单状态计数");
+        orderStatusCounter.reconcile();
+    }
+}
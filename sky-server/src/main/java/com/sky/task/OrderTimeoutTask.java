@@ -0,0 +1,199 @@
+package com.sky.task;
+
+import com.sky.counter.OrderStatusCounter;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderMapper;
+import com.sky.properties.OrderTimeoutProperties;
+import com.sky.report.DailyStatRecorder;
+import com.sky.statemachine.OrderEvent;
+import com.sky.statemachine.OrderStateMachine;
+import com.sky.timer.OrderTimeout;
+import com.sky.timer.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 定时任务类，处理超时订单
+ * 订单的到期时间在下单、派送时登记到时间轮中，每秒推进一次时间轮，到期的订单批量更新，无需扫描订单表
+ */
+@Component
+@Slf4j
+public class OrderTimeoutTask {
+
+    // 时间轮每个槽位 1 秒，每层 60 个槽位
+    private static final long TICK_MS = 1000L;
+    private static final int WHEEL_SIZE = 60;
+    // 每条 update 语句最多更新的订单数
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private OrderStatusCounter orderStatusCounter;
+    @Autowired
+    private OrderTimeoutProperties orderTimeoutProperties;
+    @Autowired
+    private DailyStatRecorder dailyStatRecorder;
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final TimingWheel<OrderTimeout> timingWheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+
+    /**
+     * 登记待支付订单的超时时间，未开启超时取消时不登记
+     *
+     * @param orderId   订单id
+     * @param orderTime 下单时间
+     */
+    public void registerPayment(Long orderId, LocalDateTime orderTime) {
+        if (!orderTimeoutProperties.isPaymentTimeoutEnabled()) {
+            return;
+        }
+        register(orderId, Orders.PENDING_PAYMENT, orderTime, orderTimeoutProperties.getPaymentMinutes());
+    }
+
+    /**
+     * 登记派送中订单的超时时间
+     *
+     * @param orderId           订单id
+     * @param deliveryStartTime 开始派送时间
+     */
+    public void registerDelivery(Long orderId, LocalDateTime deliveryStartTime) {
+        register(orderId, Orders.DELIVERY_IN_PROGRESS, deliveryStartTime, orderTimeoutProperties.getDeliveryMinutes());
+    }
+
+    /**
+     * 启动时只查询待支付(开启超时取消时)、派送中的订单，重新登记到时间轮
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Orders> pendingPayment = orderTimeoutProperties.isPaymentTimeoutEnabled()
+                ? orderMapper.getIdAndTimesByStatus(Orders.PENDING_PAYMENT)
+                : Collections.emptyList();
+        pendingPayment.forEach(o -> registerPayment(o.getId(), o.getOrderTime()));
+
+        // 升级前开始派送的订单没有记录开始派送时间，从启动时开始计时
+        LocalDateTime now = LocalDateTime.now();
+        List<Orders> deliveryInProgress = orderMapper.getIdAndTimesByStatus(Orders.DELIVERY_IN_PROGRESS);
+        deliveryInProgress.forEach(o -> registerDelivery(o.getId(),
+                o.getDeliveryStartTime() != null ? o.getDeliveryStartTime() : now));
+
+        log.info("超时订单时间轮已重建，待支付订单 {} 个，派送中订单 {} 个", pendingPayment.size(), deliveryInProgress.size());
+    }
+
+    /**
+     * 每秒推进一次时间轮，批量处理到期订单
+     */
+    @Scheduled(fixedDelay = TICK_MS)
+    public void processTimeoutOrder() {
+        List<OrderTimeout> expired = timingWheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        List<Long> paymentTimeoutIds = new ArrayList<>();
+        List<Long> deliveryTimeoutIds = new ArrayList<>();
+        for (OrderTimeout orderTimeout : expired) {
+            if (Orders.PENDING_PAYMENT.equals(orderTimeout.getStatus())) {
+                paymentTimeoutIds.add(orderTimeout.getOrderId());
+            } else {
+                deliveryTimeoutIds.add(orderTimeout.getOrderId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // 超时未支付的订单，自动取消
+        Orders cancelled = Orders.builder()
+                .status(OrderStateMachine.next(Orders.PENDING_PAYMENT, OrderEvent.PAYMENT_TIMEOUT))
+                .cancelReason("订单超时，自动取消")
+                .cancelTime(now)
+                .build();
+        updateInBatches(paymentTimeoutIds, Orders.PENDING_PAYMENT, cancelled);
+
+        // 超时仍在派送中的订单，自动完成
+        Orders completed = Orders.builder()
+                .status(OrderStateMachine.next(Orders.DELIVERY_IN_PROGRESS, OrderEvent.COMPLETE))
+                .deliveryTime(now)
+                .build();
+        updateInBatches(deliveryTimeoutIds, Orders.DELIVERY_IN_PROGRESS, completed);
+    }
+
+    private void register(Long orderId, Integer status, LocalDateTime startTime, long timeoutMinutes) {
+        long deadline = startTime.plusMinutes(timeoutMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        timingWheel.add(deadline, new OrderTimeout(orderId, status));
+    }
+
+    private void updateInBatches(List<Long> ids, Integer fromStatus, Orders orders) {
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+            Integer rows = transactionTemplate.execute(status -> updateBatch(status, batch, fromStatus, orders));
+            log.info("处理超时订单 {} 个，实际更新 {} 个，状态 {} -> {}", batch.size(), rows, fromStatus, orders.getStatus());
+        }
+    }
+
+    /**
+     * 在一个事务中更新一批订单
+     * 查询时不加锁，只更新状态仍为 fromStatus 的订单，以 where status = fromStatus 为条件；
+     * 更新行数少于订单数时，说明部分订单已被其他实例的时间轮、用户或商家修改，但无法知道是哪些订单，
+     * 因此回滚到更新前的保存点，再逐个更新，只为更新行数为 1 的订单累加统计数据，不会与其他修改重复计算
+     *
+     * @param status     当前事务
+     * @param batch      订单id
+     * @param fromStatus 原状态
+     * @param orders     新状态和需要修改的字段
+     * @return 实际更新的订单数
+     */
+    private int updateBatch(TransactionStatus status, List<Long> batch, Integer fromStatus, Orders orders) {
+        // 工作台和每日营业额按下单日期统计，同时查询下单时间和金额
+        List<Orders> candidates = orderMapper.getStatusByIds(batch).stream()
+                .filter(o -> fromStatus.equals(o.getStatus()))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<Orders> updated = candidates;
+        List<Long> candidateIds = candidates.stream().map(Orders::getId).collect(Collectors.toList());
+        Object savepoint = status.createSavepoint();
+        int rows = orderMapper.updateStatusByIds(candidateIds, fromStatus, orders);
+        if (rows == candidateIds.size()) {
+            status.releaseSavepoint(savepoint);
+        } else {
+            status.rollbackToSavepoint(savepoint);
+            status.releaseSavepoint(savepoint);
+            updated = new ArrayList<>();
+            for (Orders candidate : candidates) {
+                if (orderMapper.updateStatusByIds(Collections.singletonList(candidate.getId()), fromStatus, orders) == 1) {
+                    updated.add(candidate);
+                }
+            }
+        }
+        if (updated.isEmpty()) {
+            return 0;
+        }
+
+        orderStatusCounter.transition(fromStatus, orders.getStatus(), updated.size());
+        workspaceCounter.transition(updated, fromStatus, orders.getStatus());
+        if (Orders.COMPLETED.equals(orders.getStatus())) {
+            dailyStatRecorder.ordersCompleted(updated);
+        }
+        return updated.size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sky.task;
+
+import com.sky.pricing.PricingEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，定期刷新内存中的价格快照
+ */
+@Component
+public class PriceSnapshotTask {
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    /**
+     * 每 5 分钟从数据库刷新一次
+     */
+    @Scheduled(cron = "0 0/5 * * * ?")
+    public void reload() {
+        pricingEngine.reload();
+    }
+}
@@ -0,0 +1,24 @@
+package com.sky.task;
+
+import com.sky.shop.ShopStatusHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，定期校对内存中的店铺营业状态
+ */
+@Component
+public class ShopStatusTask {
+
+    @Autowired
+    private ShopStatusHolder shopStatusHolder;
+
+    /**
+     * 每分钟与 redis 对账一次
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void reconcile() {
+        shopStatusHolder.reload();
+    }
+}
@@ -0,0 +1,45 @@
+package com.sky.task;
+
+import com.sky.counter.WorkspaceCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务类，将工作台计数写入 redis，并定期与数据库对账
+ */
+@Component
+@Slf4j
+public class WorkspaceCounterTask {
+
+    @Autowired
+    private WorkspaceCounter workspaceCounter;
+
+    /**
+     * 应用启动后加载工作台数据
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        workspaceCounter.restore();
+    }
+
+    /**
+     * 每秒将本实例的增量写入 redis，并读回所有实例的合计值
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flush() {
+        workspaceCounter.flush();
+    }
+
+    /**
+     * 每 5 分钟与数据库对账一次
+     */
+    @Scheduled(cron = "0 0/5 * * * ?")
+    public void reconcile() {
+        log.info("校对工作台数据");
+        workspaceCounter.reconcile();
+    }
+}
@@ -0,0 +1,18 @@
+package com.sky.timer;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 订单超时任务
+ */
+@Data
+@AllArgsConstructor
+public class OrderTimeout {
+
+    //订单id
+    private Long orderId;
+
+    //到期时订单应处于的状态，状态已变化的订单不做处理
+    private Integer status;
+}
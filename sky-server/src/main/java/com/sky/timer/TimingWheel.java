@@ -0,0 +1,133 @@
+package com.sky.timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * 第 0 层每个槽位跨度为 tickMs，第 k 层每个槽位跨度为第 k-1 层的一圈；
+ * 超出当前层范围的任务放入上一层，上一层的槽位到期时再降级放回下层，
+ * 新增任务和推进时间的开销都与任务总数无关
+ *
+ * @param <T> 任务类型
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+
+    // 每一层的槽位，levels.get(k)[i] 为第 k 层第 i 个槽位
+    private final List<Deque<Entry<T>>[]> levels = new ArrayList<>();
+    // 每一层槽位的跨度
+    private final List<Long> levelTicks = new ArrayList<>();
+
+    // 当前时间，始终是 tickMs 的整数倍
+    private long currentTime;
+
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - startMs % tickMs;
+        addLevel(tickMs);
+    }
+
+    /**
+     * 添加任务，已到期的任务会在下一次推进时间时返回
+     *
+     * @param deadline 到期时间(毫秒)
+     * @param task     任务
+     */
+    public synchronized void add(long deadline, T task) {
+        place(new Entry<>(Math.max(deadline, currentTime), task));
+        size++;
+    }
+
+    /**
+     * 推进时间，返回所有到期的任务
+     *
+     * @param now 当前时间(毫秒)
+     * @return
+     */
+    public synchronized List<T> advance(long now) {
+        List<T> expired = new ArrayList<>();
+        while (now >= currentTime + tickMs) {
+            // 当前槽位已全部到期
+            Deque<Entry<T>> bucket = levels.get(0)[slot(currentTime, tickMs)];
+            for (Entry<T> entry : bucket) {
+                expired.add(entry.task);
+            }
+            size -= bucket.size();
+            bucket.clear();
+
+            currentTime += tickMs;
+            cascade();
+        }
+        return expired;
+    }
+
+    /**
+     * 当前时间轮中的任务数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 当前时间跨过上层槽位的边界时，从高层到低层依次将该槽位中的任务放回下层
+     */
+    private void cascade() {
+        for (int level = levels.size() - 1; level > 0; level--) {
+            long levelTick = levelTicks.get(level);
+            if (currentTime % levelTick != 0) {
+                continue;
+            }
+            Deque<Entry<T>> bucket = levels.get(level)[slot(currentTime, levelTick)];
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; ; level++) {
+            if (level == levels.size()) {
+                addLevel(levelTicks.get(level - 1) * wheelSize);
+            }
+            long levelTick = levelTicks.get(level);
+            // 与当前槽位的距离小于一圈时放入该层，保证一个槽位中只有同一圈的任务
+            if (entry.deadline / levelTick < currentTime / levelTick + wheelSize) {
+                levels.get(level)[slot(entry.deadline, levelTick)].add(entry);
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel(long levelTick) {
+        Deque<Entry<T>>[] buckets = new Deque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        levels.add(buckets);
+        levelTicks.add(levelTick);
+    }
+
+    private int slot(long time, long levelTick) {
+        return (int) ((time / levelTick) % wheelSize);
+    }
+
+    private static class Entry<T> {
+        private final long deadline;
+        private final T task;
+
+        private Entry(long deadline, T task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.sky.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheTest {
+
+    @Test
+    void evictsLeastRecentlyAccessedEntryWhenFull() {
+        LocalCache<Long, String> cache = new LocalCache<>(2, 60_000);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        // 访问 1 之后，2 成为最久未访问的数据
+        assertThat(cache.get(1L)).isEqualTo("a");
+
+        cache.put(3L, "c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L)).isEqualTo("a");
+        assertThat(cache.get(3L)).isEqualTo("c");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsAMiss() throws InterruptedException {
+        LocalCache<Long, String> cache = new LocalCache<>(10, 20);
+        cache.put(1L, "a");
+        Thread.sleep(50);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, 60_000);
+        cache.put(1L, "a");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+        cache.remove(1L);
+        cache.get(1L);
+
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.sky.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 50;
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "menu";
+        })));
+        // 等第一个线程开始加载后，其他线程再请求同一个 key
+        while (!singleFlight.isRunning(1L)) {
+            Thread.yield();
+        }
+        for (int i = 1; i < THREADS; i++) {
+            futures.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("menu");
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.isRunning(1L)).isFalse();
+    }
+
+    @Test
+    void failureIsSharedAndNotCached() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // 失败后不保留结果，下一次调用重新加载
+        assertThat(singleFlight.isRunning(1L)).isFalse();
+        assertThat(singleFlight.execute(1L, () -> "menu")).isEqualTo("menu");
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        String outer = singleFlight.execute(1L, () -> "a" + singleFlight.execute(2L, () -> "b"));
+
+        assertThat(outer).isEqualTo("ab");
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sky.report;
+
+import com.sky.entity.DailyStat;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusinessReportWriterTest {
+
+    private static final LocalDate BEGIN = LocalDate.of(2024, 1, 1);
+
+    // 采样间隔(行)
+    private static final int SAMPLE_ROWS = 5_000;
+
+    @Test
+    void writesSummaryAndDailyDetailWithMissingDaysFilled() throws IOException {
+        LocalDate end = BEGIN.plusDays(29);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BusinessReportWriter writer = new BusinessReportWriter(BEGIN, end)) {
+            // 只有偶数天有数据
+            for (int day = 0; day < 30; day += 2) {
+                writer.handleResult(context(dailyStat(BEGIN.plusDays(day))));
+            }
+            writer.finish(out);
+        }
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet summary = workbook.getSheet("概览");
+            Sheet detail = workbook.getSheet("每日明细");
+
+            // 表头 + 30 天
+            assertThat(detail.getLastRowNum()).isEqualTo(30);
+            assertThat(detail.getRow(1).getCell(0).getStringCellValue()).isEqualTo(BEGIN.toString());
+            assertThat(detail.getRow(2).getCell(2).getNumericCellValue()).isZero();
+            assertThat(detail.getRow(30).getCell(0).getStringCellValue()).isEqualTo(end.toString());
+
+            // 15 天有数据，每天 100 单，其中 80 单有效，营业额 4000，新增用户 10
+            assertThat(summary.getRow(4).getCell(0).getNumericCellValue()).isEqualTo(60_000.0);
+            assertThat(summary.getRow(4).getCell(1).getNumericCellValue()).isEqualTo(1_500.0);
+            assertThat(summary.getRow(4).getCell(2).getNumericCellValue()).isEqualTo(1_200.0);
+            assertThat(summary.getRow(4).getCell(3).getNumericCellValue()).isEqualTo(0.8);
+            assertThat(summary.getRow(4).getCell(4).getNumericCellValue()).isEqualTo(50.0);
+            assertThat(summary.getRow(4).getCell(5).getNumericCellValue()).isEqualTo(150.0);
+        }
+    }
+
+    /**
+     * 写入一个月与写入 100,000 天的堆内存峰值相差不超过 8MB
+     * 不使用流式写入时每行约占用 1KB 以上，100,000 行需要上百 MB
+     */
+    @Test
+    void peakHeapDoesNotGrowWithRowCount() throws IOException {
+        long shortPeak = peakHeapWhileWriting(30);
+        long longPeak = peakHeapWhileWriting(100_000);
+
+        assertThat(longPeak - shortPeak).isLessThan(8L * 1024 * 1024);
+    }
+
+    /**
+     * 写入 days 天的明细，每隔 SAMPLE_ROWS 行以及输出工作簿前后，在 GC 后采样堆内存，返回相对写入前的最大增量
+     */
+    private long peakHeapWhileWriting(int days) throws IOException {
+        long baseline = usedHeapAfterGc();
+        long peak = 0;
+
+        LocalDate end = BEGIN.plusDays(days - 1);
+        try (BusinessReportWriter writer = new BusinessReportWriter(BEGIN, end)) {
+            DefaultResultContext<DailyStat> context = new DefaultResultContext<>();
+            for (int day = 0; day < days; day++) {
+                context.nextResultObject(dailyStat(BEGIN.plusDays(day)));
+                writer.handleResult(context);
+                if (day % SAMPLE_ROWS == 0) {
+                    peak = Math.max(peak, usedHeapAfterGc() - baseline);
+                }
+            }
+            peak = Math.max(peak, usedHeapAfterGc() - baseline);
+            writer.finish(new DiscardingOutputStream());
+            peak = Math.max(peak, usedHeapAfterGc() - baseline);
+        }
+        return peak;
+    }
+
+    private long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private DefaultResultContext<DailyStat> context(DailyStat dailyStat) {
+        DefaultResultContext<DailyStat> context = new DefaultResultContext<>();
+        context.nextResultObject(dailyStat);
+        return context;
+    }
+
+    private DailyStat dailyStat(LocalDate date) {
+        return DailyStat.builder()
+                .statDate(date)
+                .orderCount(100)
+                .validOrderCount(80)
+                .turnover(new BigDecimal("4000.00"))
+                .newUserCount(10)
+                .build();
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.sky.report;
+
+import com.sky.dto.GoodsSalesDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 每日 Space-Saving 统计合并后的销量排行与精确统计 (group by name order by sum(number)) 对比
+ * 每日统计由测试中用 Java 重新实现的 DailySketch 生成，按 SalesRanking.OFFER_SCRIPT 的替换规则编写；
+ * 本测试验证的是这一规则和 SpaceSaving 合并的误差上界，并不执行 redis 中的 lua 脚本，脚本本身的改动不会被本测试发现
+ */
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 100;
+    private static final int PRODUCTS = 1_000;
+    private static final int DAYS = 60;
+    private static final int ORDERS_PER_DAY = 3_000;
+
+    @Test
+    void mergedCountsBoundExactSalesAndTop10MatchesExact() {
+        Random random = new Random(20240501L);
+        double[] weights = zipfWeights(PRODUCTS, 1.1);
+
+        List<Map<String, Long>> exactByDay = new ArrayList<>();
+        List<SpaceSaving> summaries = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            Map<String, Long> exact = new HashMap<>();
+            DailySketch sketch = new DailySketch(CAPACITY);
+            for (int order = 0; order < ORDERS_PER_DAY; order++) {
+                // 每个订单 1 ~ 3 个商品，每个商品 1 ~ 3 份
+                for (int item = random.nextInt(3); item >= 0; item--) {
+                    String name = "商品" + sample(weights, random);
+                    long number = 1 + random.nextInt(3);
+                    exact.merge(name, number, Long::sum);
+                    sketch.offer(name, number);
+                }
+            }
+            exactByDay.add(exact);
+            summaries.add(sketch.toSummary());
+        }
+
+        // 整个范围，以及其中一段
+        assertAgainstExact(summaries, exactByDay);
+        assertAgainstExact(summaries.subList(10, 25), exactByDay.subList(10, 25));
+    }
+
+    @Test
+    void unfilledSummariesMergeExactly() {
+        SpaceSaving day1 = new SpaceSaving(CAPACITY);
+        day1.put("宫保鸡丁", 5, 0);
+        day1.put("鱼香肉丝", 3, 0);
+        SpaceSaving day2 = new SpaceSaving(CAPACITY);
+        day2.put("鱼香肉丝", 4, 0);
+
+        List<GoodsSalesDTO> top = SpaceSaving.merge(Arrays.asList(day1, day2)).top(10);
+
+        assertThat(top).extracting(GoodsSalesDTO::getName).containsExactly("鱼香肉丝", "宫保鸡丁");
+        assertThat(top).extracting(GoodsSalesDTO::getNumber).containsExactly(7, 5);
+    }
+
+    private void assertAgainstExact(List<SpaceSaving> summaries, List<Map<String, Long>> exactByDay) {
+        Map<String, Long> exact = new HashMap<>();
+        exactByDay.forEach(day -> day.forEach((name, number) -> exact.merge(name, number, Long::sum)));
+        long total = exact.values().stream().mapToLong(Long::longValue).sum();
+
+        SpaceSaving merged = SpaceSaving.merge(summaries);
+        List<GoodsSalesDTO> all = merged.top(Integer.MAX_VALUE);
+
+        // 计数不小于真实销量，与真实销量之差不超过总销量 / 容量
+        long maxError = 0;
+        for (GoodsSalesDTO dto : all) {
+            long actual = exact.getOrDefault(dto.getName(), 0L);
+            assertThat((long) dto.getNumber()).as(dto.getName()).isGreaterThanOrEqualTo(actual);
+            maxError = Math.max(maxError, dto.getNumber() - actual);
+        }
+        assertThat(maxError).isLessThanOrEqualTo(total / CAPACITY);
+
+        // 与精确统计的前 10 名相同
+        List<String> exactTop10 = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry::getKey))
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        assertThat(merged.top(10)).extracting(GoodsSalesDTO::getName).containsExactlyElementsOf(exactTop10);
+    }
+
+    private double[] zipfWeights(int n, double s) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private int sample(double[] cumulative, Random random) {
+        double r = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) / 2;
+            if (cumulative[mid] < r) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 一天的 Space-Saving 统计，按 SalesRanking.OFFER_SCRIPT 的规则用 Java 重新实现：
+     * 已记录或未满时累加；否则替换计数最小 (相同时名称最小) 的商品，新商品继承其计数并记为误差
+     */
+    private static class DailySketch {
+        private final int capacity;
+        private final Map<String, long[]> counters = new TreeMap<>();
+
+        private DailySketch(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void offer(String name, long number) {
+            long[] counter = counters.get(name);
+            if (counter != null) {
+                counter[0] += number;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(name, new long[]{number, 0});
+                return;
+            }
+            Map.Entry<String, long[]> min = counters.entrySet().stream()
+                    .min(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).thenComparing(Map.Entry::getKey))
+                    .orElseThrow(IllegalStateException::new);
+            long minCount = min.getValue()[0];
+            counters.remove(min.getKey());
+            counters.put(name, new long[]{minCount + number, minCount});
+        }
+
+        private SpaceSaving toSummary() {
+            SpaceSaving summary = new SpaceSaving(capacity);
+            counters.forEach((name, counter) -> summary.put(name, counter[0], counter[1]));
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.sky.serializer;
+
+import com.sky.entity.DishFlavor;
+import com.sky.vo.DishVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(512);
+
+    @Test
+    void roundTripsBeansAndCommonTypes() {
+        List<DishVO> dishes = dishes(3);
+
+        Object restored = serializer.deserialize(serializer.serialize(dishes));
+
+        assertThat(restored).isEqualTo(dishes);
+    }
+
+    @Test
+    void largeValuesAreCompressedAndSmallerThanJdk() {
+        List<DishVO> dishes = dishes(40);
+
+        byte[] compact = serializer.serialize(dishes);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(dishes);
+
+        assertThat(compact.length).isLessThan(jdk.length / 4);
+        assertThat(serializer.deserialize(compact)).isEqualTo(dishes);
+    }
+
+    @Test
+    void readsExistingJdkSerializedValues() {
+        List<DishVO> dishes = dishes(2);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(dishes);
+
+        assertThat(serializer.deserialize(jdk)).isEqualTo(dishes);
+    }
+
+    @Test
+    void removedClassIsACacheMiss() {
+        byte[] bytes = serializer.serialize(new OldBean("12.50"));
+        // 写入数据的版本中存在的类，在当前版本中已被删除
+        replace(bytes, "OldBean", "GoneBen");
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void changedFieldTypeIsACacheMiss() {
+        byte[] bytes = serializer.serialize(new OldBean("12.50"));
+        // NewBean 的 price 字段由 String 改为 BigDecimal
+        replace(bytes, "OldBean", "NewBean");
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void removedClassInJdkDataIsACacheMiss() {
+        byte[] bytes = new JdkSerializationRedisSerializer().serialize(new OldBean("12.50"));
+        replace(bytes, "OldBean", "GoneBen");
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void truncatedCompressedValueFailsInsteadOfHanging() {
+        byte[] compact = serializer.serialize(dishes(40));
+        byte[] truncated = Arrays.copyOf(compact, compact.length / 2);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThatThrownBy(() -> serializer.deserialize(truncated))
+                        .isInstanceOf(SerializationException.class));
+    }
+
+    private List<DishVO> dishes(int n) {
+        List<DishVO> dishes = new ArrayList<>();
+        for (long i = 1; i <= n; i++) {
+            dishes.add(DishVO.builder()
+                    .id(i)
+                    .name("菜品" + i)
+                    .categoryId(10L)
+                    .price(new BigDecimal("38.00"))
+                    .image("https://example.com/dish/" + i + ".png")
+                    .description("招牌菜，选用当日新鲜食材")
+                    .status(1)
+                    .updateTime(LocalDateTime.of(2024, 5, 1, 12, 0))
+                    .categoryName("热菜")
+                    .flavors(Arrays.asList(
+                            DishFlavor.builder().id(i * 2).dishId(i).name("辣度").value("[\"不辣\",\"微辣\",\"中辣\"]").build(),
+                            DishFlavor.builder().id(i * 2 + 1).dishId(i).name("忌口").value("[\"不要葱\",\"不要蒜\"]").build()))
+                    .build());
+        }
+        return dishes;
+    }
+
+    /**
+     * 替换数据中的类名，新旧类名长度相同
+     */
+    private void replace(byte[] bytes, String from, String to) {
+        byte[] source = from.getBytes(StandardCharsets.UTF_8);
+        byte[] target = to.getBytes(StandardCharsets.UTF_8);
+        outer:
+        for (int i = 0; i <= bytes.length - source.length; i++) {
+            for (int j = 0; j < source.length; j++) {
+                if (bytes[i + j] != source[j]) {
+                    continue outer;
+                }
+            }
+            System.arraycopy(target, 0, bytes, i, target.length);
+            return;
+        }
+        throw new IllegalArgumentException(from + " not found");
+    }
+
+    static class OldBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String price;
+
+        OldBean() {
+        }
+
+        OldBean(String price) {
+            this.price = price;
+        }
+    }
+
+    static class NewBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private BigDecimal price;
+    }
+}
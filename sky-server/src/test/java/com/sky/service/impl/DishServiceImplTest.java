@@ -0,0 +1,65 @@
+package com.sky.service.impl;
+
+import com.sky.entity.Dish;
+import com.sky.entity.DishFlavor;
+import com.sky.mapper.DishFlavorMapper;
+import com.sky.mapper.DishMapper;
+import com.sky.vo.DishVO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DishServiceImplTest {
+
+    private static final int DISHES = 40;
+
+    @Mock
+    private DishMapper dishMapper;
+    @Mock
+    private DishFlavorMapper dishFlavorMapper;
+    @InjectMocks
+    private DishServiceImpl dishService;
+
+    /**
+     * 一个分类 40 个菜品：逐个查询口味时需要 1 + 40 次查询，批量查询后为 2 次
+     */
+    @Test
+    void listWithFlavorQueriesFlavorsOnce() {
+        List<Dish> dishes = new ArrayList<>();
+        List<DishFlavor> flavors = new ArrayList<>();
+        for (long id = 1; id <= DISHES; id++) {
+            dishes.add(Dish.builder().id(id).name("菜品" + id).categoryId(10L).status(1).build());
+            // 偶数 id 的菜品有两种口味，奇数 id 的菜品没有口味
+            if (id % 2 == 0) {
+                flavors.add(DishFlavor.builder().dishId(id).name("辣度").value("[\"不辣\",\"微辣\"]").build());
+                flavors.add(DishFlavor.builder().dishId(id).name("忌口").value("[\"不要葱\"]").build());
+            }
+        }
+        when(dishMapper.list(any(Dish.class))).thenReturn(dishes);
+        when(dishFlavorMapper.getFlavorsByDishIds(anyList())).thenReturn(flavors);
+
+        List<DishVO> result = dishService.listWithFlavor(Dish.builder().categoryId(10L).status(1).build());
+
+        int queries = mockingDetails(dishMapper).getInvocations().size()
+                + mockingDetails(dishFlavorMapper).getInvocations().size();
+        assertThat(queries).isEqualTo(2);
+
+        assertThat(result).hasSize(DISHES);
+        for (DishVO dishVO : result) {
+            assertThat(dishVO.getFlavors()).hasSize(dishVO.getId() % 2 == 0 ? 2 : 0)
+                    .allMatch(flavor -> flavor.getDishId().equals(dishVO.getId()));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.sky.service.impl;
+
+import com.sky.constant.MessageConstant;
+import com.sky.counter.OrderStatusCounter;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.dto.OrdersBatchDTO;
+import com.sky.entity.Orders;
+import com.sky.mapper.OrderMapper;
+import com.sky.report.DailyStatRecorder;
+import com.sky.service.OrderService;
+import com.sky.vo.OrderBatchResultVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量修改订单状态时，部分订单在查询之后、更新之前被并发修改
+ * 订单表由内存中的 map 模拟，保存点保存 map 的副本，回滚时恢复；
+ * 通过事务拦截器调用，与运行时相同，transitionBatch 可以取得当前事务
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderBatchTransitionTest {
+
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private OrderStatusCounter orderStatusCounter;
+    @Mock
+    private WorkspaceCounter workspaceCounter;
+    @Mock
+    private DailyStatRecorder dailyStatRecorder;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TransactionStatus transactionStatus;
+    @InjectMocks
+    private OrderServiceImpl orderServiceImpl;
+
+    private OrderService orderService;
+
+    // 模拟的订单表，key: 订单id, value: 状态
+    private final Map<Long, Integer> table = new HashMap<>();
+    // 查询之后、更新之前由其他请求提交的修改
+    private Runnable concurrentChange = () -> {
+    };
+
+    private PrintStream stdout;
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws UnsupportedEncodingException {
+        for (long id = 1; id <= 4; id++) {
+            table.put(id, Orders.TO_BE_CONFIRMED);
+        }
+
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        when(transactionStatus.createSavepoint()).thenAnswer(invocation -> new HashMap<>(table));
+        lenient().doAnswer(invocation -> {
+            Map<Long, Integer> savepoint = invocation.getArgument(0);
+            table.clear();
+            table.putAll(savepoint);
+            return null;
+        }).when(transactionStatus).rollbackToSavepoint(any());
+
+        when(orderMapper.getStatusByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            List<Orders> ordersList = ids.stream()
+                    .map(id -> Orders.builder().id(id).status(table.get(id)).payStatus(Orders.PAID).build())
+                    .collect(Collectors.toList());
+            concurrentChange.run();
+            return ordersList;
+        });
+        when(orderMapper.updateStatusByIds(anyList(), anyInt(), any(Orders.class))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            Integer fromStatus = invocation.getArgument(1);
+            Orders orders = invocation.getArgument(2);
+            int rows = 0;
+            for (Long id : ids) {
+                if (table.replace(id, fromStatus, orders.getStatus())) {
+                    rows++;
+                }
+            }
+            return rows;
+        });
+
+        ProxyFactory proxyFactory = new ProxyFactory(orderServiceImpl);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        orderService = (OrderService) proxyFactory.getProxy();
+
+        stdout = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8.name()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+    }
+
+    /**
+     * 拒单与用户取消的结果都是已取消，只看最终状态无法区分；
+     * 整组更新行数不足时回滚后逐个更新，只有本次修改的订单计为成功、计数并退款
+     */
+    @Test
+    void concurrentlyChangedOrderIsNotCredited() {
+        // 订单 2 被用户取消
+        concurrentChange = () -> table.put(2L, Orders.CANCELLED);
+        OrdersBatchDTO dto = new OrdersBatchDTO();
+        dto.setIds(Arrays.asList(1L, 2L, 3L, 4L));
+        dto.setRejectionReason("batch");
+
+        OrderBatchResultVO result = orderService.rejectionBatch(dto);
+
+        assertThat(result.getSuccessIds()).containsExactly(1L, 3L, 4L);
+        assertThat(result.getFailures()).containsOnlyKeys(2L).containsValue(MessageConstant.ORDER_STATUS_ERROR);
+        assertThat(table.values()).allMatch(Orders.CANCELLED::equals);
+
+        verify(orderStatusCounter).transition(Orders.TO_BE_CONFIRMED, Orders.CANCELLED, 3);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Orders>> credited = ArgumentCaptor.forClass(List.class);
+        verify(workspaceCounter).transition(credited.capture(), eq(Orders.TO_BE_CONFIRMED), eq(Orders.CANCELLED));
+        assertThat(credited.getValue()).extracting(Orders::getId).containsExactly(1L, 3L, 4L);
+
+        assertThat(new String(captured.toByteArray(), StandardCharsets.UTF_8).split("\\R"))
+                .containsExactly("调用微信退款接口，订单id：1", "调用微信退款接口，订单id：3", "调用微信退款接口，订单id：4");
+    }
+
+    @Test
+    void groupWithoutConflictIsUpdatedOnce() {
+        table.put(2L, Orders.CONFIRMED);
+        OrdersBatchDTO dto = new OrdersBatchDTO();
+        dto.setIds(Arrays.asList(1L, 3L, 4L));
+
+        OrderBatchResultVO result = orderService.confirmBatch(dto);
+
+        assertThat(result.getSuccessIds()).containsExactly(1L, 3L, 4L);
+        assertThat(result.getFailures()).isEmpty();
+        verify(orderMapper).updateStatusByIds(eq(Arrays.asList(1L, 3L, 4L)), eq(Orders.TO_BE_CONFIRMED), any(Orders.class));
+        verify(orderStatusCounter).transition(Orders.TO_BE_CONFIRMED, Orders.CONFIRMED, 3);
+    }
+}
@@ -0,0 +1,209 @@
+package com.sky.service.impl;
+
+import com.sky.counter.OrderStatusCounter;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.dto.OrdersConfirmDTO;
+import com.sky.dto.OrdersRejectionDTO;
+import com.sky.entity.Orders;
+import com.sky.exception.OrderBusinessException;
+import com.sky.mapper.OrderMapper;
+import com.sky.report.DailyStatRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单状态流转的并发压力测试
+ * 订单表由内存中的 map 模拟，updateStatusByIds 与 SQL 的 update ... where status = ? 相同，只有状态匹配时才修改；
+ * 用户取消、商家接单、商家拒单同时作用于同一批订单，每个订单只能有一个请求成功，计数与最终状态一致；
+ * 订单都已支付，只有取消成功的请求会退款，每个被取消的订单恰好退款一次
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderTransitionStressTest {
+
+    private static final int ORDERS = 2_000;
+    private static final int THREADS = 32;
+
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private OrderStatusCounter orderStatusCounter;
+    @Mock
+    private WorkspaceCounter workspaceCounter;
+    @Mock
+    private DailyStatRecorder dailyStatRecorder;
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    // 模拟的订单表，key: 订单id, value: 状态
+    private final Map<Long, Integer> table = new ConcurrentHashMap<>();
+    // 计数器收到的增量，key: 状态
+    private final Map<Integer, AtomicInteger> counterDeltas = new ConcurrentHashMap<>();
+
+    private static final String REFUND_LOG = "调用微信退款接口，订单id：";
+
+    private PrintStream stdout;
+    // 退款接口打印到标准输出，PrintStream 的 println 是同步的，并发打印的行不会交错
+    private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws UnsupportedEncodingException {
+        for (long id = 1; id <= ORDERS; id++) {
+            table.put(id, Orders.TO_BE_CONFIRMED);
+        }
+
+        when(orderMapper.getById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            Orders orders = Orders.builder().id(id).status(table.get(id)).payStatus(Orders.PAID).build();
+            // 拉长查询与更新之间的间隔，让并发请求读到相同的状态
+            Thread.yield();
+            return orders;
+        });
+        when(orderMapper.updateStatusByIds(anyList(), anyInt(), any(Orders.class))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            Integer fromStatus = invocation.getArgument(1);
+            Orders orders = invocation.getArgument(2);
+            int rows = 0;
+            for (Long id : ids) {
+                if (table.replace(id, fromStatus, orders.getStatus())) {
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        doAnswer(invocation -> {
+            Integer from = invocation.getArgument(0);
+            Integer to = invocation.getArgument(1);
+            counterDeltas.computeIfAbsent(from, k -> new AtomicInteger()).decrementAndGet();
+            counterDeltas.computeIfAbsent(to, k -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }).when(orderStatusCounter).transition(anyInt(), anyInt());
+
+        stdout = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8.name()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Test
+    void conflictingTransitionsHaveExactlyOneWinner() throws Exception {
+        List<Request> requests = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            long orderId = id;
+            requests.add(new Request(orderId, () -> orderService.cancel(orderId)));
+            requests.add(new Request(orderId, () -> {
+                OrdersConfirmDTO dto = new OrdersConfirmDTO();
+                dto.setId(orderId);
+                orderService.confirm(dto);
+            }));
+            requests.add(new Request(orderId, () -> {
+                OrdersRejectionDTO dto = new OrdersRejectionDTO();
+                dto.setId(orderId);
+                dto.setRejectionReason("stress");
+                orderService.rejection(dto);
+            }));
+        }
+        Collections.shuffle(requests, new Random(42));
+
+        // key: 订单id, value: 成功的请求数
+        Map<Long, AtomicInteger> successes = new ConcurrentHashMap<>();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Request request : requests) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    request.action.run();
+                    successes.computeIfAbsent(request.orderId, k -> new AtomicInteger()).incrementAndGet();
+                } catch (OrderBusinessException e) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // 每个订单恰好一个请求成功，其余请求因状态已变化而失败
+        assertThat(successes).hasSize(ORDERS);
+        successes.forEach((id, count) -> assertThat(count.get()).as("order %d", id).isEqualTo(1));
+        assertThat(failures.get()).isEqualTo(requests.size() - ORDERS);
+
+        // 所有订单都离开了待接单状态，计数的增量与最终状态一致
+        long confirmed = table.values().stream().filter(Orders.CONFIRMED::equals).count();
+        long cancelled = table.values().stream().filter(Orders.CANCELLED::equals).count();
+        assertThat(confirmed + cancelled).isEqualTo(ORDERS);
+        assertThat(delta(Orders.TO_BE_CONFIRMED)).isEqualTo(-ORDERS);
+        assertThat(delta(Orders.CONFIRMED)).isEqualTo(confirmed);
+        assertThat(delta(Orders.CANCELLED)).isEqualTo(cancelled);
+
+        // 退款次数等于取消成功的次数，退款的订单就是被取消的订单
+        System.out.flush();
+        List<Long> refundedIds = Arrays.stream(new String(captured.toByteArray(), StandardCharsets.UTF_8).split("\\R"))
+                .filter(line -> line.startsWith(REFUND_LOG))
+                .map(line -> Long.valueOf(line.substring(REFUND_LOG.length())))
+                .collect(Collectors.toList());
+        Set<Long> cancelledIds = table.entrySet().stream()
+                .filter(e -> Orders.CANCELLED.equals(e.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        assertThat(refundedIds).hasSize((int) cancelled).doesNotHaveDuplicates();
+        assertThat(refundedIds).containsExactlyInAnyOrderElementsOf(cancelledIds);
+    }
+
+    private long delta(Integer status) {
+        AtomicInteger value = counterDeltas.get(status);
+        return value == null ? 0 : value.get();
+    }
+
+    private static class Request {
+        private final long orderId;
+        private final Runnable action;
+
+        private Request(long orderId, Runnable action) {
+            this.orderId = orderId;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.sky.service.impl;
+
+import com.sky.cache.CacheWarmer;
+import com.sky.constant.StatusConstant;
+import com.sky.counter.WorkspaceCounter;
+import com.sky.dto.SetmealDTO;
+import com.sky.entity.Setmeal;
+import com.sky.mapper.SetmealDishMapper;
+import com.sky.mapper.SetmealMapper;
+import com.sky.menu.MenuSnapshot;
+import com.sky.pricing.PricingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 套餐修改、删除、起售停售时只清理受影响分类的缓存
+ * 测试中没有事务，清理在调用时立即执行
+ */
+@ExtendWith(MockitoExtension.class)
+class SetmealServiceImplTest {
+
+    @Mock
+    private SetmealMapper setmealMapper;
+    @Mock
+    private SetmealDishMapper setmealDishMapper;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private PricingEngine pricingEngine;
+    @Mock
+    private WorkspaceCounter workspaceCounter;
+    @Mock
+    private MenuSnapshot menuSnapshot;
+    @InjectMocks
+    private SetmealServiceImpl setmealService;
+
+    // 被清理的缓存 key
+    private final Set<Object> evictedKeys = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cacheManager.getCache(CacheWarmer.SETMEAL_CACHE)).thenReturn(cache);
+        lenient().doAnswer(invocation -> evictedKeys.add(invocation.getArgument(0))).when(cache).evict(any());
+    }
+
+    @Test
+    void updateWithinCategoryEvictsOnlyThatCategory() {
+        when(setmealMapper.getById(1L)).thenReturn(Setmeal.builder().id(1L).categoryId(10L).build());
+
+        setmealService.update(setmealDTO(1L, 10L));
+
+        assertThat(evictedKeys).containsExactly(10L);
+    }
+
+    @Test
+    void movingSetmealEvictsOldAndNewCategory() {
+        when(setmealMapper.getById(1L)).thenReturn(Setmeal.builder().id(1L).categoryId(10L).build());
+
+        setmealService.update(setmealDTO(1L, 20L));
+
+        assertThat(evictedKeys).containsExactlyInAnyOrder(10L, 20L);
+    }
+
+    @Test
+    void deleteEvictsDistinctCategoriesOfDeletedSetmeals() {
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(setmealMapper.getStatusByIds(ids)).thenReturn(Collections.emptyList());
+        when(setmealMapper.getCategoryIdsByIds(ids)).thenReturn(Arrays.asList(10L, 30L));
+
+        setmealService.deleteBatch(ids);
+
+        assertThat(evictedKeys).containsExactlyInAnyOrder(10L, 30L);
+    }
+
+    @Test
+    void startOrStopEvictsOwnCategory() {
+        when(setmealMapper.getById(1L)).thenReturn(Setmeal.builder().id(1L).categoryId(30L).build());
+
+        setmealService.startOrStop(StatusConstant.DISABLE, 1L);
+
+        assertThat(evictedKeys).containsExactly(30L);
+        verify(cache, never()).clear();
+    }
+
+    private SetmealDTO setmealDTO(Long id, Long categoryId) {
+        SetmealDTO setmealDTO = new SetmealDTO();
+        setmealDTO.setId(id);
+        setmealDTO.setCategoryId(categoryId);
+        setmealDTO.setSetmealDishes(new ArrayList<>());
+        return setmealDTO;
+    }
+}
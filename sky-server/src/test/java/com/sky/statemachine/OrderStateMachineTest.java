@@ -0,0 +1,71 @@
+package com.sky.statemachine;
+
+import com.sky.entity.Orders;
+import com.sky.exception.OrderBusinessException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStateMachineTest {
+
+    @Test
+    void legalTransitions() {
+        assertThat(OrderStateMachine.next(Orders.PENDING_PAYMENT, OrderEvent.PAY)).isEqualTo(Orders.TO_BE_CONFIRMED);
+        assertThat(OrderStateMachine.next(Orders.PENDING_PAYMENT, OrderEvent.PAYMENT_TIMEOUT)).isEqualTo(Orders.CANCELLED);
+        assertThat(OrderStateMachine.next(Orders.TO_BE_CONFIRMED, OrderEvent.CONFIRM)).isEqualTo(Orders.CONFIRMED);
+        assertThat(OrderStateMachine.next(Orders.TO_BE_CONFIRMED, OrderEvent.REJECT)).isEqualTo(Orders.CANCELLED);
+        assertThat(OrderStateMachine.next(Orders.TO_BE_CONFIRMED, OrderEvent.USER_CANCEL)).isEqualTo(Orders.CANCELLED);
+        assertThat(OrderStateMachine.next(Orders.CONFIRMED, OrderEvent.DELIVER)).isEqualTo(Orders.DELIVERY_IN_PROGRESS);
+        assertThat(OrderStateMachine.next(Orders.DELIVERY_IN_PROGRESS, OrderEvent.COMPLETE)).isEqualTo(Orders.COMPLETED);
+        assertThat(OrderStateMachine.next(Orders.DELIVERY_IN_PROGRESS, OrderEvent.ADMIN_CANCEL)).isEqualTo(Orders.CANCELLED);
+    }
+
+    @Test
+    void illegalTransitionsAreRejected() {
+        // 已接单后用户不能取消，也不能拒单
+        assertThat(OrderStateMachine.canFire(Orders.CONFIRMED, OrderEvent.USER_CANCEL)).isFalse();
+        assertThat(OrderStateMachine.canFire(Orders.CONFIRMED, OrderEvent.REJECT)).isFalse();
+        assertThat(OrderStateMachine.canFire(Orders.PENDING_PAYMENT, OrderEvent.DELIVER)).isFalse();
+        assertThat(OrderStateMachine.canFire(Orders.TO_BE_CONFIRMED, OrderEvent.COMPLETE)).isFalse();
+        assertThat(OrderStateMachine.canFire(null, OrderEvent.PAY)).isFalse();
+
+        assertThatThrownBy(() -> OrderStateMachine.next(Orders.CONFIRMED, OrderEvent.USER_CANCEL))
+                .isInstanceOf(OrderBusinessException.class);
+    }
+
+    /**
+     * 没有支付回调时订单实际经过的流转：下单后为待付款，商家接单、派送、完成
+     */
+    @Test
+    void submittedOrderCanBeConfirmedDeliveredAndCompleted() {
+        Integer status = Orders.PENDING_PAYMENT;
+        status = OrderStateMachine.next(status, OrderEvent.CONFIRM);
+        assertThat(status).isEqualTo(Orders.CONFIRMED);
+        status = OrderStateMachine.next(status, OrderEvent.DELIVER);
+        assertThat(status).isEqualTo(Orders.DELIVERY_IN_PROGRESS);
+        status = OrderStateMachine.next(status, OrderEvent.COMPLETE);
+        assertThat(status).isEqualTo(Orders.COMPLETED);
+    }
+
+    /**
+     * 有支付回调时：支付后为待接单，再接单、派送、完成
+     */
+    @Test
+    void paidOrderCanBeConfirmedDeliveredAndCompleted() {
+        Integer status = OrderStateMachine.next(Orders.PENDING_PAYMENT, OrderEvent.PAY);
+        assertThat(status).isEqualTo(Orders.TO_BE_CONFIRMED);
+        status = OrderStateMachine.next(status, OrderEvent.CONFIRM);
+        status = OrderStateMachine.next(status, OrderEvent.DELIVER);
+        status = OrderStateMachine.next(status, OrderEvent.COMPLETE);
+        assertThat(status).isEqualTo(Orders.COMPLETED);
+    }
+
+    @Test
+    void terminalStatesHaveNoTransitions() {
+        for (OrderEvent event : OrderEvent.values()) {
+            assertThat(OrderStateMachine.canFire(Orders.COMPLETED, event)).as("completed + %s", event).isFalse();
+            assertThat(OrderStateMachine.canFire(Orders.CANCELLED, event)).as("cancelled + %s", event).isFalse();
+        }
+    }
+}
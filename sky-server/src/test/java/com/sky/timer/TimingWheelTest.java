@@ -0,0 +1,64 @@
+package com.sky.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    @Test
+    void everyTaskExpiresWithinOneTickAfterItsDeadline() {
+        long start = 1_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, start);
+
+        // 到期时间跨越多层时间轮
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int task = 0; task < 5_000; task++) {
+            long deadline = start + random.nextInt(200_000);
+            deadlines.put(task, deadline);
+            wheel.add(deadline, task);
+        }
+        assertThat(wheel.size()).isEqualTo(deadlines.size());
+
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        for (long now = start; now <= start + 200_000 + TICK_MS; now += TICK_MS) {
+            for (Integer task : wheel.advance(now)) {
+                assertThat(expiredAt.put(task, now)).as("task %d expired twice", task).isNull();
+            }
+        }
+
+        assertThat(wheel.size()).isZero();
+        assertThat(expiredAt).hasSameSizeAs(deadlines);
+        deadlines.forEach((task, deadline) ->
+                assertThat(expiredAt.get(task)).as("task %d", task).isGreaterThan(deadline).isLessThanOrEqualTo(deadline + TICK_MS));
+    }
+
+    @Test
+    void pastDeadlineExpiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 1_000);
+        wheel.advance(5_000);
+
+        wheel.add(100, "late");
+        assertThat(wheel.advance(5_000 + TICK_MS)).containsExactly("late");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advancingInOneLargeStepReturnsAllExpiredTasks() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        for (int task = 0; task < 1_000; task++) {
+            wheel.add(task * 100L, task);
+        }
+
+        assertThat(wheel.advance(50_000)).hasSize(500);
+        assertThat(wheel.advance(100_000)).hasSize(500);
+    }
+}
@@ -0,0 +1,33 @@
+package com.sky.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CursorUtilTest {
+
+    @Test
+    void encodeAndDecode() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+        String cursor = CursorUtil.encode(time, 1234567890123L);
+
+        assertThat(CursorUtil.decodeTime(cursor)).isEqualTo(time);
+        assertThat(CursorUtil.decodeId(cursor)).isEqualTo(1234567890123L);
+    }
+
+    @Test
+    void malformedCursorDecodesToNull() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2024-05-01T12:30".getBytes(StandardCharsets.UTF_8));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday,1".getBytes(StandardCharsets.UTF_8));
+        String badId = Base64.getUrlEncoder().encodeToString("2024-05-01T12:30,abc".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[]{"not base64 !", noSeparator, badTime, badId}) {
+            assertThat(CursorUtil.decodeTime(cursor)).as(cursor).isNull();
+            assertThat(CursorUtil.decodeId(cursor)).as(cursor).isNull();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sky.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdUtilTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void idsAreUniqueAndIncreasingUnderConcurrency() throws Exception {
+        SnowflakeIdUtil idUtil = new SnowflakeIdUtil(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                // 同一个线程内生成的 id 严格递增
+                long last = -1;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    long id = idUtil.nextId();
+                    if (id <= last) {
+                        return false;
+                    }
+                    last = id;
+                    ids.add(id);
+                }
+                return true;
+            }));
+        }
+        start.countDown();
+        for (Future<Boolean> future : futures) {
+            assertThat(future.get(30, TimeUnit.SECONDS)).isTrue();
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void workerIdIsEncodedInEveryId() {
+        SnowflakeIdUtil idUtil = new SnowflakeIdUtil(SnowflakeIdUtil.MAX_WORKER_ID);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat((idUtil.nextId() >>> 12) & SnowflakeIdUtil.MAX_WORKER_ID).isEqualTo(SnowflakeIdUtil.MAX_WORKER_ID);
+        }
+    }
+
+    @Test
+    void rejectsWorkerIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeIdUtil(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdUtil(SnowflakeIdUtil.MAX_WORKER_ID + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,3 @@
+-- 订单增加开始派送时间，派送超时自动完成从开始派送时计算
+alter table orders
+    add column delivery_start_time datetime null comment '开始派送时间' after delivery_time;
@@ -0,0 +1,3 @@
+-- 订单归档表，表结构与热表相同，只保存已完成、已取消的历史订单
+create table if not exists orders_archive like orders;
+create table if not exists order_detail_archive like order_detail;
@@ -0,0 +1,8 @@
+-- 每日汇总表，订单、用户变化时增量累加，每晚从订单表、用户表重新汇总最近两天
+create table if not exists daily_stat (
+    stat_date         date          not null primary key comment '统计日期',
+    order_count       int           not null default 0 comment '订单数',
+    valid_order_count int           not null default 0 comment '有效订单数',
+    turnover          decimal(12,2) not null default 0 comment '营业额',
+    new_user_count    int           not null default 0 comment '新增用户数'
+) comment '每日汇总';
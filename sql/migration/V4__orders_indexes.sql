@@ -0,0 +1,17 @@
+-- 订单查询使用的索引
+-- idx_user_id_order_time_id: 用户端历史订单，where user_id = ? order by order_time desc, id desc，游标条件 (order_time, id) < 游标
+-- idx_order_time_id:         管理端订单搜索、报表，按下单时间范围查询，order by order_time desc, id desc
+-- idx_status_order_time:     超时订单重建、订单统计、归档，where status = ? (and order_time < ?)
+alter table orders
+    add index idx_user_id_order_time_id (user_id, order_time, id),
+    add index idx_order_time_id (order_time, id),
+    add index idx_status_order_time (status, order_time);
+
+-- 归档表由 V2 按当时的热表结构创建，不包含上面的索引；查询归档订单时与热表使用相同的条件
+alter table orders_archive
+    add index idx_user_id_order_time_id (user_id, order_time, id),
+    add index idx_order_time_id (order_time, id);
+
+-- 查询归档订单的明细：where order_id in (...)
+alter table order_detail_archive
+    add index idx_order_id (order_id);